@@ -0,0 +1,42 @@
+package com.example.weatherapp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiServiceBenchmark {
+    private byte[] weatherJson;
+    private byte[] airPollutionJson;
+    private byte[] forecastJson;
+    private ForecastSeries forecast;
+
+    @Setup
+    public void setup() throws IOException {
+        weatherJson = Fixtures.load("weather.json");
+        airPollutionJson = Fixtures.load("air_pollution.json");
+        forecastJson = Fixtures.load("forecast.json");
+        forecast = WeatherParser.parseForecast(new ByteArrayInputStream(forecastJson));
+    }
+
+    @Benchmark
+    public WeatherData processWeatherData() throws IOException {
+        WeatherParser.Current current = WeatherParser.parseCurrent(new ByteArrayInputStream(weatherJson));
+        int aqi = WeatherParser.parseAqi(new ByteArrayInputStream(airPollutionJson));
+        WeatherData data = ApiService.processWeatherData(current, aqi);
+        data.setForecast(forecast);
+        return data;
+    }
+
+    @Benchmark
+    public ForecastSeries parseForecast() throws IOException {
+        return WeatherParser.parseForecast(new ByteArrayInputStream(forecastJson));
+    }
+}
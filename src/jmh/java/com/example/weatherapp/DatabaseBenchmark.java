@@ -0,0 +1,106 @@
+package com.example.weatherapp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DatabaseManager against a throwaway database. The perCallConnection variants reproduce the old
+ * open-prepare-close-per-call access pattern on the same file for comparison. The rollup month
+ * query runs over {@code historyDays} of three-hourly observations to show it does not grow with history.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DatabaseBenchmark {
+    private Path dbFile;
+    private String url;
+    private int counter;
+
+    @Param({"30", "3650"})
+    private int historyDays;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dbFile = Files.createTempFile("weather-bench", ".db");
+        url = "jdbc:sqlite:" + dbFile;
+        System.setProperty("weatherapp.db.url", url);
+        for (int i = 0; i < 20; i++) {
+            DatabaseManager.saveSearch("City " + i).join();
+        }
+        long now = System.currentTimeMillis() / 1000;
+        for (long at = now - historyDays * 86400L; at < now; at += 3 * 3600) {
+            WeatherData data = new WeatherData("Khulna", "BD", 20 + (at / 3600) % 12, "clear sky", 70, 3.5, 1008, 2,
+                    22.8, 89.55, "06:00 AM", "06:00 PM");
+            data.setObservedAt(at);
+            ObservationStore.record(data);
+        }
+        ObservationStore.whenFlushed().join();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        DatabaseManager.shutdown();
+        Files.deleteIfExists(dbFile);
+        Files.deleteIfExists(Path.of(dbFile + "-wal"));
+        Files.deleteIfExists(Path.of(dbFile + "-shm"));
+    }
+
+    @Benchmark
+    public void saveSearch() {
+        DatabaseManager.saveSearch("City " + (counter++ % 50)).join();
+    }
+
+    @Benchmark
+    public List<String> getHistory() {
+        return DatabaseManager.getHistory().join();
+    }
+
+    @Benchmark
+    public void saveThenDeleteSearch() {
+        DatabaseManager.saveSearch("Transient").join();
+        DatabaseManager.deleteSearch("Transient").join();
+    }
+
+    @Benchmark
+    public List<WeatherRollups.DailyRollup> rollupMonth() {
+        return WeatherRollups.readMonth("khulna,bd", YearMonth.now()).join();
+    }
+
+    @Benchmark
+    public void saveSearchPerCallConnection() throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url);
+             PreparedStatement pstmt = conn.prepareStatement("INSERT OR REPLACE INTO history(city, search_time) VALUES(?, CURRENT_TIMESTAMP)")) {
+            pstmt.setString(1, "City " + (counter++ % 50));
+            pstmt.executeUpdate();
+        }
+    }
+
+    @Benchmark
+    public List<String> getHistoryPerCallConnection() throws SQLException {
+        List<String> cities = new ArrayList<>();
+        try (Connection conn = DriverManager.getConnection(url);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT city FROM history ORDER BY search_time DESC LIMIT 10")) {
+            while (rs.next()) {
+                cities.add(rs.getString("city"));
+            }
+        }
+        return cities;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.weatherapp;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Data shaping behind populateHourlyUI and populateCalendar, without any JavaFX nodes. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UiModelBenchmark {
+    private ForecastSeries forecast;
+    private final List<List<WeatherRollups.DailyRollup>> monthRollups = new ArrayList<>();
+
+    @Setup
+    public void setup() throws IOException {
+        forecast = WeatherParser.parseForecast(new ByteArrayInputStream(Fixtures.load("forecast.json")));
+        for (int month = 1; month <= 12; month++) {
+            List<WeatherRollups.DailyRollup> days = new ArrayList<>();
+            for (LocalDate date = LocalDate.of(2025, month, 1); date.getMonthValue() == month; date = date.plusDays(1)) {
+                days.add(new WeatherRollups.DailyRollup(date, 8, 18 + month, 27 + month, 22 + month, "Clouds"));
+            }
+            monthRollups.add(days);
+        }
+    }
+
+    @Benchmark
+    public double hourlyModel() {
+        double max = -100, min = 100;
+        for (WeatherData.HourlyPoint point : forecast.hourly(8)) {
+            if (point.temp() > max) max = point.temp();
+            if (point.temp() < min) min = point.temp();
+        }
+        return max - min;
+    }
+
+    @Benchmark
+    public int calendarMonthSwitch() {
+        int found = 0;
+        for (int month = 1; month <= 12; month++) {
+            CalendarMonth calendar = CalendarMonth.of("khulna,bd", 2025, month, monthRollups.get(month - 1));
+            for (int slot = 0; slot < CalendarMonth.SLOTS; slot++) {
+                int day = calendar.dayAt(slot);
+                if (day != 0 && calendar.hasData(day)) found++;
+            }
+        }
+        return found;
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.weatherapp;
+
+/**
+ * Failure of an upstream call, classified so callers can decide how to react without parsing
+ * messages: retry, fall back to cached data, or report a status to the user.
+ */
+public class ApiException extends Exception {
+    public enum Kind { TIMEOUT, TRANSPORT, HTTP_STATUS, DECODE, CIRCUIT_OPEN, QUOTA_EXHAUSTED }
+
+    private final Kind kind;
+    private final String host;
+    private final int statusCode;
+    private final int attempts;
+
+    public ApiException(Kind kind, String host, int statusCode, int attempts, String message, Throwable cause) {
+        super(message, cause);
+        this.kind = kind;
+        this.host = host;
+        this.statusCode = statusCode;
+        this.attempts = attempts;
+    }
+
+    static ApiException status(String host, int statusCode, int attempts) {
+        return new ApiException(Kind.HTTP_STATUS, host, statusCode, attempts,
+                host + " returned status " + statusCode + describeAttempts(attempts), null);
+    }
+
+    static ApiException transport(String host, Throwable cause, int attempts) {
+        boolean timeout = cause instanceof java.net.http.HttpTimeoutException || cause instanceof java.util.concurrent.TimeoutException;
+        return new ApiException(timeout ? Kind.TIMEOUT : Kind.TRANSPORT, host, 0, attempts,
+                host + (timeout ? " timed out" : " unreachable: " + cause.getClass().getSimpleName()) + describeAttempts(attempts), cause);
+    }
+
+    /** A successful response whose body could not be decoded; asking again would get the same body. */
+    static ApiException decode(String host, Throwable cause, int attempts) {
+        return new ApiException(Kind.DECODE, host, 200, attempts,
+                host + " sent a response that could not be read: " + (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName()), cause);
+    }
+
+    static ApiException circuitOpen(String host) {
+        return new ApiException(Kind.CIRCUIT_OPEN, host, 0, 0, host + " is failing; requests are paused", null);
+    }
+
+    public Kind getKind() { return kind; }
+    public String getHost() { return host; }
+    public int getStatusCode() { return statusCode; }
+    public int getAttempts() { return attempts; }
+
+    /** Worth another attempt: the network or the server failed, not the request itself. */
+    public boolean isRetryable() {
+        return kind == Kind.TIMEOUT || kind == Kind.TRANSPORT
+                || (kind == Kind.HTTP_STATUS && (statusCode >= 500 || statusCode == 429));
+    }
+
+    /** Counts against the host's circuit breaker; client errors such as 404 mean the host is healthy. */
+    boolean isHostFailure() {
+        return kind == Kind.TIMEOUT || kind == Kind.TRANSPORT || (kind == Kind.HTTP_STATUS && statusCode >= 500);
+    }
+
+    private static String describeAttempts(int attempts) {
+        return attempts > 1 ? " after " + attempts + " attempts" : "";
+    }
+}
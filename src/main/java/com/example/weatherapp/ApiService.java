@@ -1,181 +1,467 @@
 package com.example.weatherapp;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.weatherapp.RequestQuota.Priority;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
-import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public class ApiService {
+    @FunctionalInterface
+    interface Decoder<T> {
+        T decode(InputStream body) throws IOException;
+    }
+
+    /** Outcome of one city in a batch: either the data or the error that city failed with. */
+    public record CityResult(String city, WeatherData data, Throwable error) {
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+
     private static final String API_KEY = "5828bd5b646348de10e5a6be2b917c31";
-    private static final ObjectMapper mapper = new ObjectMapper();
+    // Overridable so a local stand-in (ReplayServer in the test sources) can replace the real services.
+    private static final String OWM_BASE_URL = System.getProperty("weatherapp.owm.baseUrl", "https://api.openweathermap.org");
+    private static final String IP_LOOKUP_URL = System.getProperty("weatherapp.ipLookup.url", "https://ipapi.co/json/");
+    private static final String IP_LOOKUP_FALLBACK_URL = System.getProperty("weatherapp.ipLookup.fallbackUrl", "http://ip-api.com/json/");
+    private static final long SECONDARY_TIMEOUT_SECONDS = 8;
+    private static final Duration IP_LOOKUP_TIMEOUT = Duration.ofSeconds(3);
+    private static final Duration IP_LOOKUP_HEDGE_DELAY = Duration.ofMillis(400);
+    private static final Duration IP_CITY_TTL = Duration.ofHours(Long.getLong("weatherapp.ipCity.ttlHours", 12));
+    private static final String IP_CITY_STATE_KEY = "ip_city";
+    public static final int DEFAULT_BATCH_CONCURRENCY = 6;
+    private static final int MAX_ATTEMPTS = Integer.getInteger("weatherapp.http.maxAttempts", 3);
+    // Upper bound on a blocking fetch, whatever the quota queue, retries and fan-out add up to.
+    private static final Duration FETCH_TIMEOUT = Duration.ofSeconds(Long.getLong("weatherapp.http.fetchTimeoutSeconds", 30));
     private static final HttpClient client = HttpClient.newBuilder()
             .followRedirects(HttpClient.Redirect.ALWAYS)
+            .connectTimeout(Duration.ofSeconds(Long.getLong("weatherapp.http.connectTimeoutSeconds", 5)))
             .build();
+    private static final HttpTransport transport = new HttpTransport(client,
+            Duration.ofSeconds(Long.getLong("weatherapp.http.requestTimeoutSeconds", 10)),
+            Duration.ofSeconds(Long.getLong("weatherapp.http.bodyTimeoutSeconds", 10)),
+            Duration.ofMillis(250));
+    private static final ResponseCache<Object> responseCache = new ResponseCache<>(256, Map.of(
+            "weather", Duration.ofMinutes(5),
+            "air_pollution", Duration.ofMinutes(15),
+            "forecast", Duration.ofMinutes(30)
+    ), Duration.ofMinutes(5));
+    private static final LocationIndex nearbyLocations = new LocationIndex(
+            Double.parseDouble(System.getProperty("weatherapp.nearby.radiusKm", "2")),
+            Duration.ofMinutes(Long.getLong("weatherapp.nearby.maxAgeMinutes", 10)).toMillis(),
+            512);
+    private static final SingleFlight<String, WeatherData> weatherFlights = new SingleFlight<>();
+    private static final HttpTransport.Endpoint WEATHER_ENDPOINT = HttpTransport.Endpoint.named("http.weather");
+    private static final HttpTransport.Endpoint AIR_POLLUTION_ENDPOINT = HttpTransport.Endpoint.named("http.air_pollution");
+    private static final HttpTransport.Endpoint FORECAST_ENDPOINT = HttpTransport.Endpoint.named("http.forecast");
+    private static final HttpTransport.Endpoint GEOLOCATION_ENDPOINT = HttpTransport.Endpoint.named("http.geolocation");
+    private static final RequestQuota quota = new RequestQuota(
+            Integer.getInteger("weatherapp.quota.perMinute", 60), 0.25,
+            Long.getLong("weatherapp.quota.userWaitMillis", 5000),
+            Long.getLong("weatherapp.quota.backgroundWaitMillis", 30000));
+    private static final LongAdder servedStale = new LongAdder();
+    private static final LongAdder batchCallbackErrors = new LongAdder();
+    private static final System.Logger LOG = System.getLogger(ApiService.class.getName());
+
+    static {
+        Metrics.gauge("cache.response.hitRatio", responseCache::getHitRatio);
+        Metrics.gauge("cache.response.size", responseCache::size);
+        Metrics.gauge("cache.nearby.hits", nearbyLocations::getHits);
+        Metrics.gauge("cache.nearby.misses", nearbyLocations::getMisses);
+        Metrics.gauge("singleflight.absorbed", weatherFlights::getAbsorbed);
+        Metrics.gauge("quota.tokens", quota::getAvailableTokens);
+        Metrics.gauge("quota.queueDepth", quota::getQueueDepth);
+        Metrics.gauge("quota.granted", quota::getGranted);
+        Metrics.gauge("quota.exhausted", quota::getExhausted);
+        Metrics.gauge("quota.servedStale", servedStale::sum);
+        Metrics.gauge("batch.callbackErrors", batchCallbackErrors::sum);
+    }
+
+    public static ResponseCache<Object> getResponseCache() {
+        return responseCache;
+    }
+
+    public static LocationIndex getNearbyLocations() {
+        return nearbyLocations;
+    }
+
+    public static SingleFlight<String, WeatherData> getWeatherFlights() {
+        return weatherFlights;
+    }
+
+    public static RequestQuota getQuota() {
+        return quota;
+    }
+
+    public static HttpTransport getTransport() {
+        return transport;
+    }
 
     public static String getCityByIP() {
+        byte[] cached = DatabaseManager.getState(IP_CITY_STATE_KEY, IP_CITY_TTL.toSeconds()).join();
+        if (cached != null) {
+            return new String(cached, StandardCharsets.UTF_8);
+        }
+
+        String city = null;
+        CompletableFuture<String> lookup = lookupCityHedged();
         try {
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create("https://ipapi.co/json/"))
-                    .header("User-Agent", "java/11")
-                    .build();
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-            JsonNode root = mapper.readTree(response.body());
-
-            String city = root.path("city").asText();
-            if (city == null || city.equalsIgnoreCase("Bagerhat") || city.isEmpty()) {
-                return "Khulna";
-            }
-            return city;
-        } catch (Exception e) {
-            try {
-                HttpRequest backupRequest = HttpRequest.newBuilder()
-                        .uri(URI.create("http://ip-api.com/json/"))
-                        .build();
-                HttpResponse<String> backupResponse = client.send(backupRequest, HttpResponse.BodyHandlers.ofString());
-                JsonNode backupRoot = mapper.readTree(backupResponse.body());
-                String backupCity = backupRoot.path("city").asText();
-                return (backupCity == null || backupCity.equalsIgnoreCase("Bagerhat") || backupCity.isEmpty()) ? "Khulna" : backupCity;
-            } catch (Exception ex) {
-                return "Khulna";
-            }
+            city = lookup.get(IP_LOOKUP_TIMEOUT.plus(IP_LOOKUP_HEDGE_DELAY).toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Both providers failed or stalled; fall through to the default city.
+        } finally {
+            lookup.cancel(true);
+        }
+        if (city == null || city.isEmpty() || city.equalsIgnoreCase("Bagerhat")) {
+            return "Khulna";
         }
+        DatabaseManager.putState(IP_CITY_STATE_KEY, city.getBytes(StandardCharsets.UTF_8));
+        return city;
+    }
+
+    /**
+     * Asks ipapi.co first and ip-api.com after a short hedge delay (or as soon as the first one
+     * fails), completing with the first non-empty city. Completes with null if both fail.
+     */
+    private static CompletableFuture<String> lookupCityHedged() {
+        CompletableFuture<String> answer = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        BiConsumer<String, Throwable> onReply = (city, e) -> {
+            if (e == null && city != null && !city.isEmpty()) {
+                answer.complete(city);
+            } else if (failures.incrementAndGet() == 2) {
+                answer.complete(null);
+            }
+        };
+
+        CompletableFuture<String> primary = lookupCityAsync(HttpRequest.newBuilder()
+                .uri(URI.create(IP_LOOKUP_URL))
+                .header("User-Agent", "java/11"));
+        primary.whenComplete(onReply);
+
+        CompletableFuture<Void> hedge = new CompletableFuture<Void>()
+                .completeOnTimeout(null, IP_LOOKUP_HEDGE_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+        primary.whenComplete((city, e) -> {
+            if (e != null || city == null || city.isEmpty()) hedge.complete(null);
+        });
+        AtomicReference<CompletableFuture<String>> backup = new AtomicReference<>();
+        hedge.thenRun(() -> {
+            if (answer.isDone()) return;
+            backup.set(lookupCityAsync(HttpRequest.newBuilder().uri(URI.create(IP_LOOKUP_FALLBACK_URL))));
+            backup.get().whenComplete(onReply);
+        });
+
+        answer.whenComplete((city, e) -> {
+            hedge.cancel(false);
+            primary.cancel(true);
+            CompletableFuture<String> second = backup.get();
+            if (second != null) second.cancel(true);
+        });
+        return answer;
+    }
+
+    // A single attempt each: the hedge to the second provider takes the place of retries.
+    private static CompletableFuture<String> lookupCityAsync(HttpRequest.Builder request) {
+        return transport.get(request, IP_LOOKUP_TIMEOUT, 1, GEOLOCATION_ENDPOINT, WeatherParser::parseCity)
+                .orTimeout(IP_LOOKUP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
     }
 
     public static WeatherData fetchWeather(String city) throws Exception {
-        String queryCity = (city == null || city.equalsIgnoreCase("Bagerhat")) ? "Khulna" : city;
-        String weatherUrl = "https://api.openweathermap.org/data/2.5/weather?q=" +
-                queryCity.replace(" ", "+") + "&appid=" + API_KEY + "&units=metric";
-        return processWeatherData(sendRequest(weatherUrl));
+        return fetchWeather(city, Priority.USER);
+    }
+
+    public static WeatherData fetchWeather(String city, Priority priority) throws Exception {
+        return await(fetchWeatherAsync(city, priority));
     }
 
     public static WeatherData fetchWeatherByCoords(double lat, double lon) throws Exception {
-        String weatherUrl = "https://api.openweathermap.org/data/2.5/weather?lat=" +
-                lat + "&lon=" + lon + "&appid=" + API_KEY + "&units=metric";
-        return processWeatherData(sendRequest(weatherUrl));
+        return await(fetchWeatherByCoordsAsync(lat, lon));
     }
 
-    private static WeatherData processWeatherData(JsonNode weatherRoot) throws Exception {
-        double lat = weatherRoot.path("coord").path("lat").asDouble();
-        double lon = weatherRoot.path("coord").path("lon").asDouble();
-        String countryCode = weatherRoot.path("sys").path("country").asText();
+    public static CompletableFuture<WeatherData> fetchWeatherAsync(String city) {
+        return fetchWeatherAsync(city, Priority.USER);
+    }
 
-        String aqiUrl = "https://api.openweathermap.org/data/2.5/air_pollution?lat=" +
-                lat + "&lon=" + lon + "&appid=" + API_KEY;
+    public static CompletableFuture<WeatherData> fetchWeatherAsync(String city, Priority priority) {
+        String queryCity = (city == null || city.equalsIgnoreCase("Bagerhat")) ? "Khulna" : city.trim();
+        return weatherFlights.run("q=" + queryCity.toLowerCase(Locale.ROOT), () -> loadWeatherAsync(queryCity, priority));
+    }
+
+    private static CompletableFuture<WeatherData> loadWeatherAsync(String queryCity, Priority priority) {
+        String weatherUrl = OWM_BASE_URL + "/data/2.5/weather?q=" +
+                URLEncoder.encode(queryCity, StandardCharsets.UTF_8) + "&appid=" + API_KEY + "&units=metric";
+
+        // Coordinates are only known once the primary call lands, so AQI and forecast fan out from there.
+        CompletableFuture<WeatherParser.Current> weather = sendRequestAsync(weatherUrl, priority, WEATHER_ENDPOINT, WeatherParser::parseCurrent);
+        AtomicReference<CompletableFuture<WeatherData>> secondary = new AtomicReference<>();
+        CompletableFuture<WeatherData> result = weather.thenCompose(current -> {
+            secondary.set(assembleWeatherData(CompletableFuture.completedFuture(current),
+                    fetchAqiAsync(current.latitude(), current.longitude(), priority),
+                    fetchForecastAsync(current.latitude(), current.longitude(), priority)));
+            return secondary.get();
+        });
+        result.whenComplete((data, e) -> {
+            if (result.isCancelled()) {
+                weather.cancel(true);
+                CompletableFuture<WeatherData> pending = secondary.get();
+                if (pending != null) pending.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    public static CompletableFuture<List<CityResult>> fetchWeatherBatch(Collection<String> cities, Consumer<CityResult> onResult) {
+        return fetchWeatherBatch(cities, DEFAULT_BATCH_CONCURRENCY, onResult);
+    }
+
+    /**
+     * Fetches many cities over the shared client with at most {@code maxConcurrency} cities in flight.
+     * Each result is handed to {@code onResult} as soon as that city completes, on whichever thread
+     * completed it; one city failing never fails the batch. The returned future holds all results in
+     * input order, and cancelling it stops the batch and cancels the cities still in flight. Batch
+     * requests run at background priority, so they only use quota left over by the user.
+     */
+    public static CompletableFuture<List<CityResult>> fetchWeatherBatch(Collection<String> cities, int maxConcurrency,
+                                                                        Consumer<CityResult> onResult) {
+        List<String> pending = List.copyOf(cities);
+        CityResult[] results = new CityResult[pending.size()];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(pending.size());
+        Set<CompletableFuture<WeatherData>> inflight = ConcurrentHashMap.newKeySet();
+        CompletableFuture<List<CityResult>> batch = new CompletableFuture<>();
+        if (pending.isEmpty()) {
+            batch.complete(List.of());
+            return batch;
+        }
 
-        JsonNode aqiRoot = sendRequest(aqiUrl);
-        int aqi = aqiRoot.path("list").get(0).path("main").path("aqi").asInt();
+        Runnable[] launchNext = new Runnable[1];
+        launchNext[0] = () -> {
+            int i = next.getAndIncrement();
+            if (i >= pending.size() || batch.isDone()) return;
+            String city = pending.get(i);
+            CompletableFuture<WeatherData> request = fetchWeatherAsync(city, Priority.BACKGROUND);
+            inflight.add(request);
+            request.whenComplete((data, e) -> {
+                inflight.remove(request);
+                if (batch.isDone()) return;
+                CityResult result = new CityResult(city, data, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                results[i] = result;
+                try {
+                    onResult.accept(result);
+                } catch (RuntimeException callbackError) {
+                    // A broken consumer must not stall the batch; count it and keep going.
+                    batchCallbackErrors.increment();
+                    LOG.log(System.Logger.Level.WARNING, "Batch result consumer failed for " + city, callbackError);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    batch.complete(Arrays.asList(results));
+                } else {
+                    launchNext[0].run();
+                }
+            });
+        };
+        for (int i = 0; i < Math.min(Math.max(1, maxConcurrency), pending.size()); i++) {
+            launchNext[0].run();
+        }
+        batch.whenComplete((r, e) -> {
+            if (batch.isCancelled()) inflight.forEach(request -> request.cancel(true));
+        });
+        return batch;
+    }
 
+    public static CompletableFuture<WeatherData> fetchWeatherByCoordsAsync(double lat, double lon) {
+        return fetchWeatherByCoordsAsync(lat, lon, Priority.USER);
+    }
+
+    public static CompletableFuture<WeatherData> fetchWeatherByCoordsAsync(double lat, double lon, Priority priority) {
+        WeatherData nearby = nearbyLocations.findNearest(lat, lon);
+        if (nearby != null) {
+            return CompletableFuture.completedFuture(nearby);
+        }
+        // Same 0.01 degree snapping as the response cache keys, so the flight and the cache agree.
+        String key = String.format(Locale.ROOT, "lat=%.2f,lon=%.2f", lat, lon);
+        return weatherFlights.run(key, () -> {
+            String weatherUrl = OWM_BASE_URL + "/data/2.5/weather?lat=" +
+                    lat + "&lon=" + lon + "&appid=" + API_KEY + "&units=metric";
+            return assembleWeatherData(sendRequestAsync(weatherUrl, priority, WEATHER_ENDPOINT, WeatherParser::parseCurrent),
+                    fetchAqiAsync(lat, lon, priority), fetchForecastAsync(lat, lon, priority));
+        });
+    }
+
+    private static CompletableFuture<WeatherData> assembleWeatherData(CompletableFuture<WeatherParser.Current> weather,
+                                                                      CompletableFuture<Integer> aqi,
+                                                                      CompletableFuture<ForecastSeries> forecast) {
+        CompletableFuture<WeatherData> result = weather.thenCombine(aqi, ApiService::processWeatherData)
+                .thenCombine(forecast, (data, series) -> {
+                    data.setForecast(series);
+                    return data;
+                })
+                .thenApply(data -> {
+                    nearbyLocations.put(data);
+                    ObservationStore.record(data);
+                    return data;
+                });
+        return cancelUpstreamOnCancel(result, weather, aqi, forecast);
+    }
+
+    static WeatherData processWeatherData(WeatherParser.Current current, int aqi) {
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a")
                 .withZone(ZoneId.systemDefault());
 
-        String sunrise = timeFormatter.format(Instant.ofEpochSecond(weatherRoot.path("sys").path("sunrise").asLong()));
-        String sunset = timeFormatter.format(Instant.ofEpochSecond(weatherRoot.path("sys").path("sunset").asLong()));
-
         WeatherData data = new WeatherData(
-                weatherRoot.path("name").asText(),
-                countryCode,
-                weatherRoot.path("main").path("temp").asDouble(),
-                weatherRoot.path("weather").get(0).path("description").asText(),
-                weatherRoot.path("main").path("humidity").asInt(),
-                weatherRoot.path("wind").path("speed").asDouble(),
-                weatherRoot.path("main").path("pressure").asInt(),
+                current.city(),
+                current.countryCode(),
+                current.temp(),
+                current.description(),
+                current.humidity(),
+                current.windSpeed(),
+                current.pressure(),
                 aqi,
-                lat,
-                lon,
-                sunrise,
-                sunset
+                current.latitude(),
+                current.longitude(),
+                timeFormatter.format(Instant.ofEpochSecond(current.sunrise())),
+                timeFormatter.format(Instant.ofEpochSecond(current.sunset()))
         );
-
-        fetchHourlyForecast(data);
+        data.setObservedAt(current.observedAt());
         return data;
     }
 
-    private static void fetchHourlyForecast(WeatherData data) {
-        try {
-            String forecastUrl = "https://api.openweathermap.org/data/2.5/forecast?lat=" +
-                    data.getLatitude() + "&lon=" + data.getLongitude() + "&appid=" + API_KEY + "&units=metric";
-
-            JsonNode forecastRoot = sendRequest(forecastUrl);
-            List<WeatherData.HourlyPoint> hourlyList = new ArrayList<>();
-            DateTimeFormatter outputFormatter = DateTimeFormatter.ofPattern("h a");
-
-            for (JsonNode node : forecastRoot.path("list")) {
-                if (hourlyList.size() >= 8) break;
-
-                long timestamp = node.path("dt").asLong();
-                LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp), ZoneId.systemDefault());
+    private static CompletableFuture<Integer> fetchAqiAsync(double lat, double lon, Priority priority) {
+        String aqiUrl = OWM_BASE_URL + "/data/2.5/air_pollution?lat=" +
+                lat + "&lon=" + lon + "&appid=" + API_KEY;
 
-                hourlyList.add(new WeatherData.HourlyPoint(
-                        dateTime.format(outputFormatter),
-                        node.path("main").path("temp").asDouble(),
-                        node.path("weather").get(0).path("main").asText(),
-                        (int) (node.path("pop").asDouble() * 100)
-                ));
-            }
-            data.setHourlyForecast(hourlyList);
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        // A slow or failing secondary call degrades to "Unknown" instead of holding up the primary data.
+        CompletableFuture<Integer> request = sendRequestAsync(aqiUrl, priority, AIR_POLLUTION_ENDPOINT, WeatherParser::parseAqi);
+        return cancelUpstreamOnCancel(request
+                .completeOnTimeout(0, SECONDARY_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .exceptionally(e -> {
+                    logDegraded("AQI", e);
+                    return 0;
+                }), request);
     }
 
-    public static List<MonthlyData> fetchMonthlyForecast(String city) {
-        List<MonthlyData> monthlyList = new ArrayList<>();
-        String queryCity = (city == null || city.equalsIgnoreCase("Bagerhat")) ? "Khulna" : city;
-        try {
-            String forecastUrl = "https://api.openweathermap.org/data/2.5/forecast?q=" +
-                    queryCity.replace(" ", "+") + "&appid=" + API_KEY + "&units=metric";
+    private static CompletableFuture<ForecastSeries> fetchForecastAsync(double lat, double lon, Priority priority) {
+        String forecastUrl = OWM_BASE_URL + "/data/2.5/forecast?lat=" +
+                lat + "&lon=" + lon + "&appid=" + API_KEY + "&units=metric";
 
-            JsonNode root = sendRequest(forecastUrl);
-            JsonNode list = root.path("list");
+        CompletableFuture<ForecastSeries> request = sendRequestAsync(forecastUrl, priority, FORECAST_ENDPOINT, WeatherParser::parseForecast);
+        return cancelUpstreamOnCancel(request
+                .completeOnTimeout(ForecastSeries.EMPTY, SECONDARY_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .exceptionally(e -> {
+                    logDegraded("Forecast", e);
+                    return ForecastSeries.EMPTY;
+                }), request);
+    }
 
-            for (int i = 0; i < list.size(); i += 8) {
-                JsonNode dayNode = list.get(i);
-                long timestamp = dayNode.path("dt").asLong();
-                LocalDateTime date = LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp), ZoneId.systemDefault());
+    private static void logDegraded(String what, Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof CancellationException) return;
+        LOG.log(System.Logger.Level.WARNING, what + " unavailable: " + (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName()));
+    }
 
-                double high = dayNode.path("main").path("temp_max").asDouble();
-                double low = dayNode.path("main").path("temp_min").asDouble();
-                String cond = dayNode.path("weather").get(0).path("main").asText();
+    /**
+     * Answers from the cache when it can; otherwise waits for a quota token at the given priority
+     * before going to the network. If the quota stays exhausted, an expired cache entry is served
+     * instead of failing.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> CompletableFuture<T> sendRequestAsync(String url, Priority priority, HttpTransport.Endpoint endpoint, Decoder<T> decoder) {
+        Object cached = responseCache.get(url);
+        if (cached != null) {
+            return CompletableFuture.completedFuture((T) cached);
+        }
 
-                monthlyList.add(new MonthlyData(date.getDayOfMonth(), high, low, cond));
+        CompletableFuture<Void> permit = quota.acquire(priority);
+        AtomicReference<CompletableFuture<T>> exchange = new AtomicReference<>();
+        CompletableFuture<T> response = permit.thenCompose(v -> {
+            exchange.set(exchangeAsync(url, endpoint, decoder));
+            return exchange.get();
+        });
+        response.whenComplete((value, e) -> {
+            if (response.isCancelled()) {
+                permit.cancel(true);
+                CompletableFuture<T> pending = exchange.get();
+                if (pending != null) pending.cancel(true);
             }
-
-            if (monthlyList.size() < 28) {
-                for (int d = 1; d <= 31; d++) {
-                    final int currentD = d;
-                    boolean exists = monthlyList.stream().anyMatch(m -> m.getDay() == currentD);
-                    if (!exists) {
-                        monthlyList.add(new MonthlyData(d, 22.0 + Math.random() * 3, 15.0 + Math.random() * 3, "Clear"));
-                    }
+        });
+        CompletableFuture<T> result = response.exceptionallyCompose(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RequestQuota.QuotaExceededException) {
+                Object stale = responseCache.getStale(url);
+                if (stale != null) {
+                    servedStale.increment();
+                    return CompletableFuture.completedFuture((T) stale);
                 }
+                return CompletableFuture.failedFuture(new ApiException(ApiException.Kind.QUOTA_EXHAUSTED,
+                        URI.create(url).getHost(), 0, 0, cause.getMessage(), cause));
             }
-            monthlyList.sort((m1, m2) -> Integer.compare(m1.getDay(), m2.getDay()));
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
-        return monthlyList;
+            return CompletableFuture.failedFuture(cause);
+        });
+        return cancelUpstreamOnCancel(result, response);
     }
 
-    private static JsonNode sendRequest(String url) throws Exception {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .build();
+    private static <T> CompletableFuture<T> exchangeAsync(String url, HttpTransport.Endpoint endpoint, Decoder<T> decoder) {
+        CompletableFuture<T> exchange = transport.get(HttpRequest.newBuilder().uri(URI.create(url)), MAX_ATTEMPTS, endpoint, decoder);
+        return cancelUpstreamOnCancel(exchange.thenApply(value -> {
+            responseCache.put(url, value);
+            return value;
+        }), exchange);
+    }
 
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+    /**
+     * Dependent stages don't forward cancel() to the futures they were derived from, so this wires
+     * it up explicitly; cancelling a fetch then aborts the underlying HTTP exchanges.
+     */
+    private static <T> CompletableFuture<T> cancelUpstreamOnCancel(CompletableFuture<T> downstream, CompletableFuture<?>... upstream) {
+        downstream.whenComplete((value, e) -> {
+            if (downstream.isCancelled()) {
+                for (CompletableFuture<?> future : upstream) future.cancel(true);
+            }
+        });
+        return downstream;
+    }
 
-        if (response.statusCode() != 200) {
-            throw new Exception("API Error: Received status code " + response.statusCode());
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        try {
+            return future.get(FETCH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ApiException(ApiException.Kind.TIMEOUT, null, 0, 0,
+                    "No answer within " + FETCH_TIMEOUT.toSeconds() + " s", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) throw cause;
+            throw e;
         }
-
-        return mapper.readTree(response.body());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.example.weatherapp;
+
+import javafx.concurrent.Task;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded pool for all UI background work. Tasks submitted on a named channel follow
+ * latest-request-wins: a new submission cancels whatever is still running on that channel, and
+ * {@link #isLatest} lets completion handlers drop results that were superseded in the meantime.
+ */
+public class BackgroundTasks {
+    private static final int POOL_SIZE = 4;
+    private static final int QUEUE_CAPACITY = 32;
+
+    private static final AtomicInteger threadCounter = new AtomicInteger();
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            POOL_SIZE, POOL_SIZE, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(QUEUE_CAPACITY), runnable -> {
+                Thread thread = new Thread(runnable, "background-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private static final Map<String, Task<?>> latestByChannel = new ConcurrentHashMap<>();
+
+    private static final LongAdder completedTasks = new LongAdder();
+    private static final LongAdder rejectedTasks = new LongAdder();
+    private static final LongAdder supersededTasks = new LongAdder();
+    private static final AtomicLong totalQueueWaitNanos = new AtomicLong();
+    private static final AtomicLong totalLatencyNanos = new AtomicLong();
+    private static final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+        Metrics.gauge("tasks.queueDepth", BackgroundTasks::getQueueDepth);
+        Metrics.gauge("tasks.active", BackgroundTasks::getActiveCount);
+        Metrics.gauge("tasks.rejected", BackgroundTasks::getRejectedTasks);
+        Metrics.gauge("tasks.superseded", BackgroundTasks::getSupersededTasks);
+        Metrics.gauge("tasks.avgLatency_ms", BackgroundTasks::getAverageLatencyMillis);
+    }
+
+    public static <T> Task<T> submit(Task<T> task) {
+        long submittedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    task.run();
+                } finally {
+                    recordLatency(startedAt - submittedAt, System.nanoTime() - submittedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedTasks.increment();
+            task.cancel(false);
+        }
+        return task;
+    }
+
+    public static <T> Task<T> submitLatest(String channel, Task<T> task) {
+        Task<?> previous = latestByChannel.put(channel, task);
+        if (previous != null && previous.cancel(true)) {
+            supersededTasks.increment();
+        }
+        return submit(task);
+    }
+
+    public static boolean isLatest(String channel, Task<?> task) {
+        return latestByChannel.get(channel) == task;
+    }
+
+    private static void recordLatency(long queueWaitNanos, long latencyNanos) {
+        completedTasks.increment();
+        totalQueueWaitNanos.addAndGet(queueWaitNanos);
+        totalLatencyNanos.addAndGet(latencyNanos);
+        maxLatencyNanos.accumulateAndGet(latencyNanos, Math::max);
+    }
+
+    public static int getQueueDepth() { return executor.getQueue().size(); }
+    public static int getActiveCount() { return executor.getActiveCount(); }
+    public static long getCompletedTasks() { return completedTasks.sum(); }
+    public static long getRejectedTasks() { return rejectedTasks.sum(); }
+    public static long getSupersededTasks() { return supersededTasks.sum(); }
+    public static double getMaxLatencyMillis() { return maxLatencyNanos.get() / 1_000_000.0; }
+
+    public static double getAverageQueueWaitMillis() {
+        long count = completedTasks.sum();
+        return count == 0 ? 0.0 : totalQueueWaitNanos.get() / 1_000_000.0 / count;
+    }
+
+    public static double getAverageLatencyMillis() {
+        long count = completedTasks.sum();
+        return count == 0 ? 0.0 : totalLatencyNanos.get() / 1_000_000.0 / count;
+    }
+}
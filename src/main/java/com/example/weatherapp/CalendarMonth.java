@@ -0,0 +1,76 @@
+package com.example.weatherapp;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Day-indexed view of one calendar month, laid out for the 6x7 grid. Instances are memoized per
+ * (location, year, month) for as long as that month's rollups are unchanged, so switching month
+ * tabs only reads arrays.
+ */
+public final class CalendarMonth {
+    public static final int SLOTS = 42;
+    private static final int MAX_CACHED = 24;
+
+    private record Key(String location, int year, int month) {}
+
+    private static final Map<Key, CalendarMonth> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, CalendarMonth> eldest) {
+            return size() > MAX_CACHED;
+        }
+    };
+    private final List<WeatherRollups.DailyRollup> source;
+    private final int year;
+    private final int month;
+    private final int firstSlot;
+    private final int daysInMonth;
+    private final double[] highs = new double[32];
+    private final double[] lows = new double[32];
+    private final String[] conditions = new String[32];
+    private long presentDays;
+
+    private CalendarMonth(int year, int month, List<WeatherRollups.DailyRollup> rollups) {
+        this.source = rollups;
+        this.year = year;
+        this.month = month;
+        this.firstSlot = LocalDate.of(year, month, 1).getDayOfWeek().getValue() % 7;
+        this.daysInMonth = YearMonth.of(year, month).lengthOfMonth();
+        for (WeatherRollups.DailyRollup rollup : rollups) {
+            if (rollup.date().getYear() != year || rollup.date().getMonthValue() != month) continue;
+            int day = rollup.date().getDayOfMonth();
+            highs[day] = rollup.max();
+            lows[day] = rollup.min();
+            conditions[day] = rollup.condition() != null ? rollup.condition() : "";
+            presentDays |= 1L << day;
+        }
+    }
+
+    public static synchronized CalendarMonth of(String location, int year, int month, List<WeatherRollups.DailyRollup> rollups) {
+        Key key = new Key(location, year, month);
+        CalendarMonth cached = cache.get(key);
+        if (cached == null || cached.source != rollups) {
+            cached = new CalendarMonth(year, month, rollups);
+            cache.put(key, cached);
+        }
+        return cached;
+    }
+
+    public int getYear() { return year; }
+    public int getMonth() { return month; }
+    public int getDaysInMonth() { return daysInMonth; }
+
+    /** Day of month shown in a grid slot (0..41), or 0 when the slot falls outside the month. */
+    public int dayAt(int slot) {
+        int day = slot - firstSlot + 1;
+        return day >= 1 && day <= daysInMonth ? day : 0;
+    }
+
+    public boolean hasData(int day) { return (presentDays & (1L << day)) != 0; }
+    public double getHigh(int day) { return highs[day]; }
+    public double getLow(int day) { return lows[day]; }
+    public String getCondition(int day) { return conditions[day]; }
+}
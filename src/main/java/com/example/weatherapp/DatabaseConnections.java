@@ -0,0 +1,170 @@
+package com.example.weatherapp;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-lived SQLite connections: one writer connection on a single-threaded executor and a small
+ * pool of reader threads, each with its own connection. WAL mode lets the readers run alongside
+ * the writer. Every connection keeps its prepared statements for reuse.
+ */
+public class DatabaseConnections {
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(StatementCache statements) throws SQLException;
+    }
+
+    public static class StatementCache {
+        private final Connection connection;
+        private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+        StatementCache(Connection connection) {
+            this.connection = connection;
+        }
+
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            } else {
+                statement.clearParameters();
+            }
+            return statement;
+        }
+
+        public Connection getConnection() {
+            return connection;
+        }
+
+        void close() {
+            statements.values().forEach(statement -> {
+                try { statement.close(); } catch (SQLException ignored) { }
+            });
+            try { connection.close(); } catch (SQLException ignored) { }
+        }
+    }
+
+    private final String url;
+    private final ExecutorService writer;
+    private final ExecutorService readers;
+    private final ThreadLocal<StatementCache> readerStatements = new ThreadLocal<>();
+    private final List<StatementCache> opened = new ArrayList<>();
+    private final CompletableFuture<Void> ready;
+    private StatementCache writerStatements;
+
+    public DatabaseConnections(String url, int readerThreads, Work<?> setup) {
+        this.url = url;
+        this.writer = Executors.newSingleThreadExecutor(daemonThreads("db-writer"));
+        this.readers = Executors.newFixedThreadPool(readerThreads, daemonThreads("db-reader"));
+        this.ready = CompletableFuture.runAsync(() -> {
+            try {
+                writerStatements = open(false);
+                setup.run(writerStatements);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, writer);
+    }
+
+    public <T> CompletableFuture<T> write(Work<T> work) {
+        return ready.thenApplyAsync(v -> call(work, writerStatements), writer);
+    }
+
+    /** Like {@link #write(Work)}, recording the time from submission to completion, and any failure, in {@code timer}. */
+    public <T> CompletableFuture<T> write(LatencyHistogram timer, Work<T> work) {
+        long start = System.nanoTime();
+        return write(work).whenComplete((value, e) -> record(timer, start, e));
+    }
+
+    /** Like {@link #read(Work)}, recording the time from submission to completion, and any failure, in {@code timer}. */
+    public <T> CompletableFuture<T> read(LatencyHistogram timer, Work<T> work) {
+        long start = System.nanoTime();
+        return read(work).whenComplete((value, e) -> record(timer, start, e));
+    }
+
+    private static void record(LatencyHistogram timer, long start, Throwable failure) {
+        timer.recordSince(start);
+        if (failure != null) timer.recordFailure();
+    }
+
+    public <T> CompletableFuture<T> read(Work<T> work) {
+        return ready.thenApplyAsync(v -> {
+            StatementCache statements = readerStatements.get();
+            if (statements == null) {
+                try {
+                    statements = open(true);
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+                readerStatements.set(statements);
+            }
+            return call(work, statements);
+        }, readers);
+    }
+
+    public void close() {
+        writer.shutdown();
+        readers.shutdown();
+        try {
+            writer.awaitTermination(2, TimeUnit.SECONDS);
+            readers.awaitTermination(2, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (opened) {
+            opened.forEach(StatementCache::close);
+            opened.clear();
+        }
+    }
+
+    private StatementCache open(boolean readOnly) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 5000");
+            if (readOnly) {
+                stmt.execute("PRAGMA query_only = true");
+            } else {
+                stmt.execute("PRAGMA journal_mode = WAL");
+                stmt.execute("PRAGMA synchronous = NORMAL");
+            }
+        }
+        StatementCache statements = new StatementCache(connection);
+        synchronized (opened) {
+            opened.add(statements);
+        }
+        return statements;
+    }
+
+    private static <T> T call(Work<T> work, StatementCache statements) {
+        try {
+            return work.run(statements);
+        } catch (SQLException e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -3,69 +3,156 @@ package com.example.weatherapp;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class DatabaseManager {
-    private static final String URL = "jdbc:sqlite:weather_history.db";
-
-    static {
-        try (Connection conn = DriverManager.getConnection(URL);
-             Statement stmt = conn.createStatement()) {
-            stmt.execute("CREATE TABLE IF NOT EXISTS history (city TEXT PRIMARY KEY, search_time DATETIME DEFAULT CURRENT_TIMESTAMP)");
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+    private static final String URL = System.getProperty("weatherapp.db.url", "jdbc:sqlite:weather_history.db");
+
+    // Each entry upgrades the schema by one version; PRAGMA user_version records how many have run.
+    private static final String[][] MIGRATIONS = {
+            {
+                    "CREATE TABLE IF NOT EXISTS history (city TEXT PRIMARY KEY, search_time DATETIME DEFAULT CURRENT_TIMESTAMP)"
+            },
+            {
+                    "CREATE TABLE IF NOT EXISTS observations (location TEXT NOT NULL, observed_at INTEGER NOT NULL, " +
+                            "latitude REAL, longitude REAL, temp REAL, humidity INTEGER, pressure INTEGER, " +
+                            "wind_speed REAL, aqi INTEGER, description TEXT, PRIMARY KEY (location, observed_at)) WITHOUT ROWID",
+                    "CREATE TABLE IF NOT EXISTS forecast_points (location TEXT NOT NULL, forecast_at INTEGER NOT NULL, " +
+                            "issued_at INTEGER NOT NULL, temp REAL, temp_min REAL, temp_max REAL, condition TEXT, " +
+                            "rain_chance INTEGER, PRIMARY KEY (location, forecast_at)) WITHOUT ROWID"
+            },
+            {
+                    "CREATE TABLE IF NOT EXISTS app_state (key TEXT PRIMARY KEY, value BLOB NOT NULL, updated_at INTEGER NOT NULL)"
+            },
+            {
+                    "CREATE TABLE IF NOT EXISTS daily_rollups (location TEXT NOT NULL, day INTEGER NOT NULL, " +
+                            "samples INTEGER NOT NULL, temp_min REAL, temp_max REAL, temp_mean REAL, condition TEXT, " +
+                            "PRIMARY KEY (location, day)) WITHOUT ROWID",
+                    WeatherRollups.BACKFILL
+            }
+    };
+
+    private static final LatencyHistogram SAVE_SEARCH_TIMER = Metrics.histogram("db.saveSearch");
+    private static final LatencyHistogram GET_HISTORY_TIMER = Metrics.histogram("db.getHistory");
+    private static final LatencyHistogram DELETE_SEARCH_TIMER = Metrics.histogram("db.deleteSearch");
+    private static final LatencyHistogram CLEAR_HISTORY_TIMER = Metrics.histogram("db.clearAllHistory");
+    private static final LatencyHistogram PUT_STATE_TIMER = Metrics.histogram("db.putState");
+    private static final LatencyHistogram GET_STATE_TIMER = Metrics.histogram("db.getState");
+
+    private static final System.Logger LOG = System.getLogger(DatabaseManager.class.getName());
+
+    private static final DatabaseConnections db = new DatabaseConnections(URL, 2, DatabaseManager::migrate);
+
+    static DatabaseConnections connections() {
+        return db;
     }
 
-    private static Connection connect() throws SQLException {
-        return DriverManager.getConnection(URL);
+    private static Void migrate(DatabaseConnections.StatementCache statements) throws SQLException {
+        Connection conn = statements.getConnection();
+        try (Statement stmt = conn.createStatement()) {
+            int version;
+            try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+                version = rs.next() ? rs.getInt(1) : 0;
+            }
+            for (int v = version; v < MIGRATIONS.length; v++) {
+                conn.setAutoCommit(false);
+                try {
+                    for (String sql : MIGRATIONS[v]) {
+                        stmt.execute(sql);
+                    }
+                    stmt.execute("PRAGMA user_version = " + (v + 1));
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+        return null;
     }
 
-    public static void saveSearch(String city) {
-        if (city == null || city.trim().isEmpty()) return;
+    public static CompletableFuture<Void> saveSearch(String city) {
+        if (city == null || city.trim().isEmpty()) return CompletableFuture.completedFuture(null);
         String sql = "INSERT OR REPLACE INTO history(city, search_time) VALUES(?, CURRENT_TIMESTAMP)";
-        try (Connection conn = connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        return db.<Void>write(SAVE_SEARCH_TIMER, statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
             pstmt.setString(1, city.trim());
             pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+            return null;
+        }).exceptionally(DatabaseManager::logFailure);
     }
 
-    public static List<String> getHistory() {
-        List<String> cities = new ArrayList<>();
+    public static CompletableFuture<List<String>> getHistory() {
         String sql = "SELECT city FROM history ORDER BY search_time DESC LIMIT 10";
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                cities.add(rs.getString("city"));
+        return db.read(GET_HISTORY_TIMER, statements -> {
+            List<String> cities = new ArrayList<>();
+            try (ResultSet rs = statements.prepare(sql).executeQuery()) {
+                while (rs.next()) {
+                    cities.add(rs.getString("city"));
+                }
             }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return cities;
+            return cities;
+        }).exceptionally(e -> {
+            logFailure(e);
+            return new ArrayList<>();
+        });
     }
 
-    public static void deleteSearch(String city) {
-        if (city == null) return;
+    public static CompletableFuture<Void> deleteSearch(String city) {
+        if (city == null) return CompletableFuture.completedFuture(null);
         String sql = "DELETE FROM history WHERE city = ?";
-        try (Connection conn = connect();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        return db.<Void>write(DELETE_SEARCH_TIMER, statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
             pstmt.setString(1, city);
             pstmt.executeUpdate();
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+            return null;
+        }).exceptionally(DatabaseManager::logFailure);
     }
 
-    public static void clearAllHistory() {
+    public static CompletableFuture<Void> clearAllHistory() {
         String sql = "DELETE FROM history";
-        try (Connection conn = connect();
-             Statement stmt = conn.createStatement()) {
-            stmt.executeUpdate(sql);
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
+        return db.<Void>write(CLEAR_HISTORY_TIMER, statements -> {
+            statements.prepare(sql).executeUpdate();
+            return null;
+        }).exceptionally(DatabaseManager::logFailure);
+    }
+
+    public static CompletableFuture<Void> putState(String key, byte[] value) {
+        String sql = "INSERT OR REPLACE INTO app_state(key, value, updated_at) VALUES(?, ?, ?)";
+        long now = System.currentTimeMillis() / 1000;
+        return db.<Void>write(PUT_STATE_TIMER, statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
+            pstmt.setString(1, key);
+            pstmt.setBytes(2, value);
+            pstmt.setLong(3, now);
+            pstmt.executeUpdate();
+            return null;
+        }).exceptionally(DatabaseManager::logFailure);
+    }
+
+    /** Returns the stored value, or null when it is missing or older than {@code maxAgeSeconds}. */
+    public static CompletableFuture<byte[]> getState(String key, long maxAgeSeconds) {
+        String sql = "SELECT value FROM app_state WHERE key = ? AND updated_at >= ?";
+        long oldest = System.currentTimeMillis() / 1000 - maxAgeSeconds;
+        return db.read(GET_STATE_TIMER, statements -> {
+            PreparedStatement pstmt = statements.prepare(sql);
+            pstmt.setString(1, key);
+            pstmt.setLong(2, oldest);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getBytes(1) : null;
+            }
+        }).exceptionally(DatabaseManager::logFailure);
+    }
+
+    static void shutdown() {
+        db.close();
+    }
+
+    // The failure itself is already counted in the operation's histogram.
+    static <T> T logFailure(Throwable e) {
+        LOG.log(System.Logger.Level.WARNING, "Database operation failed", e);
+        return null;
     }
-}
\ No newline at end of file
+}
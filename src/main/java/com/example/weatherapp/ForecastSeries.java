@@ -0,0 +1,104 @@
+package com.example.weatherapp;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable 5-day/3-hour forecast, parsed once per location and shared by the hourly cards
+ * and the trend charts; its points also feed the daily rollups behind the monthly calendar.
+ */
+public final class ForecastSeries {
+    public static final ForecastSeries EMPTY = new ForecastSeries(new long[0], new double[0], new double[0],
+            new double[0], new String[0], new int[0]);
+
+    private static final DateTimeFormatter HOUR_FORMAT = DateTimeFormatter.ofPattern("h a");
+    private static final DateTimeFormatter DAY_HOUR_FORMAT = DateTimeFormatter.ofPattern("EEE h a");
+
+    private final long[] times;
+    private final double[] temps;
+    private final double[] tempMins;
+    private final double[] tempMaxs;
+    private final String[] conditions;
+    private final int[] rainChances;
+
+    private ForecastSeries(long[] times, double[] temps, double[] tempMins, double[] tempMaxs,
+                   String[] conditions, int[] rainChances) {
+        this.times = times;
+        this.temps = temps;
+        this.tempMins = tempMins;
+        this.tempMaxs = tempMaxs;
+        this.conditions = conditions;
+        this.rainChances = rainChances;
+    }
+
+    public int size() { return times.length; }
+    public long getTime(int i) { return times[i]; }
+    public double getTemp(int i) { return temps[i]; }
+    public double getTempMin(int i) { return tempMins[i]; }
+    public double getTempMax(int i) { return tempMaxs[i]; }
+    public String getCondition(int i) { return conditions[i]; }
+    public int getRainChance(int i) { return rainChances[i]; }
+
+    public List<WeatherData.HourlyPoint> hourly(int limit) {
+        int count = Math.min(limit, times.length);
+        List<WeatherData.HourlyPoint> points = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            points.add(new WeatherData.HourlyPoint(localTime(i).format(HOUR_FORMAT), temps[i], conditions[i], rainChances[i]));
+        }
+        return points;
+    }
+
+    /** The first {@code limit} temperatures as a chartable series, sharing this forecast's arrays. */
+    public SeriesDecimator temperatures(int limit) {
+        return new SeriesDecimator(times, temps, Math.min(limit, times.length));
+    }
+
+    public String trendLabel(int i) {
+        return localTime(i).format(DAY_HOUR_FORMAT);
+    }
+
+    static class Builder {
+        private long[] times = new long[40];
+        private double[] temps = new double[40];
+        private double[] tempMins = new double[40];
+        private double[] tempMaxs = new double[40];
+        private String[] conditions = new String[40];
+        private int[] rainChances = new int[40];
+        private int size;
+
+        Builder add(long time, double temp, double tempMin, double tempMax, String condition, int rainChance) {
+            if (size == times.length) {
+                int capacity = size * 2;
+                times = Arrays.copyOf(times, capacity);
+                temps = Arrays.copyOf(temps, capacity);
+                tempMins = Arrays.copyOf(tempMins, capacity);
+                tempMaxs = Arrays.copyOf(tempMaxs, capacity);
+                conditions = Arrays.copyOf(conditions, capacity);
+                rainChances = Arrays.copyOf(rainChances, capacity);
+            }
+            times[size] = time;
+            temps[size] = temp;
+            tempMins[size] = tempMin;
+            tempMaxs[size] = tempMax;
+            conditions[size] = condition;
+            rainChances[size] = rainChance;
+            size++;
+            return this;
+        }
+
+        ForecastSeries build() {
+            return new ForecastSeries(Arrays.copyOf(times, size), Arrays.copyOf(temps, size),
+                    Arrays.copyOf(tempMins, size), Arrays.copyOf(tempMaxs, size),
+                    Arrays.copyOf(conditions, size), Arrays.copyOf(rainChances, size));
+        }
+    }
+
+    private LocalDateTime localTime(int i) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(times[i]), ZoneId.systemDefault());
+    }
+}
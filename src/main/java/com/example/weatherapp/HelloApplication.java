@@ -1,7 +1,6 @@
 package com.example.weatherapp;
 
 import javafx.application.Application;
-import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
 
@@ -10,12 +9,25 @@ import java.io.IOException;
 public class HelloApplication extends Application {
     @Override
     public void start(Stage stage) throws IOException {
-        FXMLLoader fxmlLoader = new FXMLLoader(HelloApplication.class.getResource("hello-view.fxml"));
-        Scene scene = new Scene(fxmlLoader.load());
+        StartupProfiler.mark(StartupProfiler.APP_START);
+        Metrics.start();
+        Scene scene = new Scene(SceneRegistry.getRoot(SceneRegistry.CURRENT));
+        StartupProfiler.mark(StartupProfiler.FXML_LOADED);
+        StartupProfiler.watchFirstPaint(scene);
+        SceneRegistry.show(scene, SceneRegistry.CURRENT);
         stage.setTitle("SkyCast");
         stage.setScene(scene);
         stage.setMaximized(true);
         stage.show();
+        StartupProfiler.mark(StartupProfiler.STAGE_SHOWN);
+        SceneRegistry.warmUp();
+    }
+
+    @Override
+    public void stop() {
+        MapTileServer.stop();
+        Metrics.stop();
+        DatabaseManager.shutdown();
     }
 
     public static void main(String[] args) {
@@ -1,33 +1,43 @@
 package com.example.weatherapp;
 
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
 import javafx.concurrent.Task;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
+import javafx.scene.layout.FlowPane;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Arc;
 import javafx.scene.shape.Circle;
 import javafx.scene.shape.Polygon;
 import javafx.scene.web.WebView;
-import javafx.stage.Stage;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.YearMonth;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.IntFunction;
 
 public class HelloController {
     @FXML private TextField searchField;
@@ -36,7 +46,7 @@ public class HelloController {
     @FXML private Label tempLabel, locationLabel, conditionLabel, feelsLikeLabel;
     @FXML private Label windLabel, humidityLabel, pressureLabel, visibilityLabel;
     @FXML private Label aqiLabel, dewPointLabel, timeLabel, descriptionSentence, weatherIcon;
-    @FXML private WebView mapView, interactiveMapView;
+    @FXML private StackPane mapPane, interactiveMapPane;
     @FXML private Circle aqiCircle;
     @FXML private HBox hourlyCardsContainer, monthBar;
     @FXML private LineChart<String, Number> tempChart;
@@ -47,22 +57,83 @@ public class HelloController {
     @FXML private Arc uvArc;
     @FXML private GridPane calendarGrid;
     @FXML private LineChart<String, Number> trendsChart;
+    @FXML private FlowPane citiesGrid;
+    @FXML private TextField citiesField;
+    @FXML private Label citiesStatusLabel;
+
+    private static final String WEATHER_CHANNEL = "weather";
+    private static final int PREVIEW_MAP_ZOOM = 11;
+    private static final int INTERACTIVE_MAP_ZOOM = 8;
+    private static final long TREND_HISTORY_SECONDS = 7 * 24 * 3600;
+    private static final double CHART_PIXELS_PER_POINT = 3;
+    private static final DateTimeFormatter OBSERVED_FORMAT = DateTimeFormatter.ofPattern("EEE h:mm a").withZone(ZoneId.systemDefault());
+
+    private static final System.Logger LOG = System.getLogger(HelloController.class.getName());
+    private static final LatencyHistogram UPDATE_UI_TIMER = Metrics.histogram("ui.updateUI");
+    private static final LatencyHistogram CALENDAR_UI_TIMER = Metrics.histogram("ui.populateCalendar");
+    private static final LatencyHistogram HOURLY_UI_TIMER = Metrics.histogram("ui.populateHourlyUI");
+    private static final LatencyHistogram DETAILS_UI_TIMER = Metrics.histogram("ui.populateDetailsUI");
+    private static final LatencyHistogram TRENDS_UI_TIMER = Metrics.histogram("ui.populateTrendsUI");
+    private static final LatencyHistogram MAPS_UI_TIMER = Metrics.histogram("ui.loadInteractiveMap");
+    private static final LatencyHistogram CITIES_UI_TIMER = Metrics.histogram("ui.populateCitiesUI");
 
     private static WeatherData currentWeatherData;
+    private static long dataVersion;
+    private static boolean initialRefreshStarted;
+    private static final Set<String> trackedCities = new LinkedHashSet<>();
+
+    private long renderedVersion = -1;
+    private int selectedMonth = LocalDate.now().getMonthValue();
+    private CalendarCell[] calendarCells;
+    private CompletableFuture<List<ApiService.CityResult>> cityBatch;
+    // WebViews are created the first time their pane is on screen with data to show.
+    private WebView mapView, interactiveMapView;
+    private String loadedMapUrl, loadedInteractiveMapUrl;
+    private Label mapStatus;
+    // Charts keep their full series and draw a decimated copy sized to their current width.
+    private List<ChartSeries> trendSeries = List.of(), hourlySeries = List.of();
+    private int trendPoints, hourlyPoints;
 
     @FXML
     public void initialize() {
         setupHistoryUI();
+        setupMaps();
+        setupCharts();
         if (currentWeatherData == null) {
-            handleRefresh();
+            if (!initialRefreshStarted) {
+                initialRefreshStarted = true;
+                restoreSnapshot();
+                handleRefresh();
+            }
         } else {
-            refreshAllUIComponents();
-        }
-        if (interactiveMapView != null) {
-            loadInteractiveMap();
+            refreshIfStale();
         }
     }
 
+    void refreshIfStale() {
+        if (currentWeatherData == null || renderedVersion == dataVersion) return;
+        renderedVersion = dataVersion;
+        refreshAllUIComponents();
+    }
+
+    private static void publish(WeatherData data) {
+        currentWeatherData = data;
+        dataVersion++;
+        SceneRegistry.dataChanged();
+        if (!data.isStale()) WeatherSnapshot.save(data);
+        StartupProfiler.firstData(data.isStale() ? "snapshot" : "network");
+    }
+
+    /** Paints the last saved weather while the refresh runs; fresh data replaces it when it lands. */
+    private static void restoreSnapshot() {
+        WeatherSnapshot.load().thenAccept(snapshot -> {
+            if (snapshot == null) return;
+            Platform.runLater(() -> {
+                if (currentWeatherData == null) publish(snapshot);
+            });
+        });
+    }
+
     private void setupHistoryUI() {
         if (historyListView == null) return;
         historyListView.setCellFactory(lv -> new ListCell<String>() {
@@ -83,8 +154,7 @@ public class HelloController {
                     Label deleteBtn = new Label("✕");
                     deleteBtn.getStyleClass().add("delete-icon");
                     deleteBtn.setOnMouseClicked(e -> {
-                        DatabaseManager.deleteSearch(city);
-                        updateHistoryList();
+                        DatabaseManager.deleteSearch(city).thenRun(() -> Platform.runLater(HelloController.this::updateHistoryList));
                         e.consume();
                     });
                     container.getChildren().addAll(nameLabel, deleteBtn);
@@ -119,26 +189,26 @@ public class HelloController {
 
     @FXML
     public void handleClearAllHistory() {
-        DatabaseManager.clearAllHistory();
-        Platform.runLater(() -> {
+        DatabaseManager.clearAllHistory().thenRun(() -> Platform.runLater(() -> {
             if (historyListView != null) {
                 historyListView.getItems().clear();
             }
             hideHistory();
-        });
+        }));
     }
 
     private void updateHistoryList() {
         if (historyListView == null || historyContainer == null) return;
-        List<String> history = DatabaseManager.getHistory();
-        if (history != null && !history.isEmpty()) {
-            historyListView.getItems().setAll(history);
-            historyContainer.setVisible(true);
-            historyContainer.setManaged(true);
-            historyContainer.toFront();
-        } else {
-            hideHistory();
-        }
+        DatabaseManager.getHistory().thenAccept(history -> Platform.runLater(() -> {
+            if (history != null && !history.isEmpty()) {
+                historyListView.getItems().setAll(history);
+                historyContainer.setVisible(true);
+                historyContainer.setManaged(true);
+                historyContainer.toFront();
+            } else {
+                hideHistory();
+            }
+        }));
     }
 
     private void hideHistory() {
@@ -148,12 +218,40 @@ public class HelloController {
         }
     }
 
+    // Calendar, trends and cities only start loading here; they are timed when they render, on the FX thread.
     private void refreshAllUIComponents() {
-        if (locationLabel != null) updateUI(currentWeatherData);
-        if (calendarGrid != null) populateCalendar(LocalDate.now().getMonthValue());
-        if (hourlyCardsContainer != null) populateHourlyUI();
-        if (detailTimeHeader != null) populateDetailsUI();
-        if (trendsChart != null) populateTrendsUI();
+        long start = System.nanoTime();
+        if (locationLabel != null) {
+            updateUI(currentWeatherData);
+            start = recordUiTime(UPDATE_UI_TIMER, start);
+        }
+        if (calendarGrid != null) {
+            populateCalendar(selectedMonth);
+            start = System.nanoTime();
+        }
+        if (hourlyCardsContainer != null) {
+            populateHourlyUI();
+            start = recordUiTime(HOURLY_UI_TIMER, start);
+        }
+        if (detailTimeHeader != null) {
+            populateDetailsUI();
+            start = recordUiTime(DETAILS_UI_TIMER, start);
+        }
+        if (trendsChart != null) {
+            populateTrendsUI();
+            start = System.nanoTime();
+        }
+        if (interactiveMapPane != null) {
+            loadInteractiveMap();
+            start = recordUiTime(MAPS_UI_TIMER, start);
+        }
+        if (citiesGrid != null) populateCitiesUI();
+    }
+
+    private static long recordUiTime(LatencyHistogram timer, long start) {
+        long now = System.nanoTime();
+        timer.record(now - start);
+        return now;
     }
 
     @FXML
@@ -165,9 +263,13 @@ public class HelloController {
                 return (city == null || city.equalsIgnoreCase("Bagerhat")) ? "Khulna" : city;
             }
         };
-        locationTask.setOnSucceeded(e -> performSearch(locationTask.getValue()));
-        locationTask.setOnFailed(e -> performSearch("Khulna"));
-        new Thread(locationTask).start();
+        locationTask.setOnSucceeded(e -> {
+            if (BackgroundTasks.isLatest(WEATHER_CHANNEL, locationTask)) performSearch(locationTask.getValue(), RequestQuota.Priority.BACKGROUND);
+        });
+        locationTask.setOnFailed(e -> {
+            if (BackgroundTasks.isLatest(WEATHER_CHANNEL, locationTask)) performSearch("Khulna", RequestQuota.Priority.BACKGROUND);
+        });
+        BackgroundTasks.submitLatest(WEATHER_CHANNEL, locationTask);
     }
 
     @FXML
@@ -182,25 +284,49 @@ public class HelloController {
     }
 
     private void performSearch(String city) {
+        performSearch(city, RequestQuota.Priority.USER);
+    }
+
+    // Refreshes and startup revalidation pass BACKGROUND, so they only spend quota the user's searches leave over.
+    private void performSearch(String city, RequestQuota.Priority priority) {
         String finalCity = (city == null || city.equalsIgnoreCase("Bagerhat")) ? "Khulna" : city;
         Task<WeatherData> task = new Task<>() {
             @Override
             protected WeatherData call() throws Exception {
-                return ApiService.fetchWeather(finalCity);
+                return ApiService.fetchWeather(finalCity, priority);
             }
         };
         task.setOnSucceeded(e -> {
-            currentWeatherData = task.getValue();
-            Platform.runLater(this::refreshAllUIComponents);
+            if (!BackgroundTasks.isLatest(WEATHER_CHANNEL, task)) return;
+            publish(task.getValue());
         });
-        new Thread(task).start();
+        task.setOnFailed(e -> {
+            if (BackgroundTasks.isLatest(WEATHER_CHANNEL, task)) showFailure("Couldn't refresh", task.getException());
+        });
+        BackgroundTasks.submitLatest(WEATHER_CHANNEL, task);
+    }
+
+    /** Puts a failure in this view's status line, if it has one, and in the log either way. */
+    private void showFailure(String what, Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        String message = cause instanceof ApiException api && api.getKind() == ApiException.Kind.HTTP_STATUS && api.getStatusCode() == 404
+                ? "City not found" : what + ": " + (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+        // Upstream failures are expected and already classified; anything else is a bug worth a stack trace.
+        if (cause instanceof ApiException) LOG.log(System.Logger.Level.WARNING, message);
+        else LOG.log(System.Logger.Level.WARNING, message, cause);
+        if (timeLabel != null) timeLabel.setText(message);
     }
 
     private void updateUI(WeatherData data) {
         if (data == null) return;
         String fullCountryName = new Locale("", data.getCountryCode()).getDisplayCountry();
         if (locationLabel != null) locationLabel.setText(data.getCity() + ", " + fullCountryName);
-        if (timeLabel != null) timeLabel.setText(LocalTime.now().format(DateTimeFormatter.ofPattern("h:mm a")));
+        if (timeLabel != null) {
+            timeLabel.setText(data.isStale()
+                    ? "Updated " + DateTimeFormatter.ofPattern("h:mm a").withZone(ZoneId.systemDefault())
+                            .format(Instant.ofEpochSecond(data.getObservedAt())) + " · refreshing..."
+                    : LocalTime.now().format(DateTimeFormatter.ofPattern("h:mm a")));
+        }
         if (tempLabel != null) tempLabel.setText(Math.round(data.getTemp()) + "°C");
         if (conditionLabel != null) conditionLabel.setText(data.getDescription());
         if (feelsLikeLabel != null) feelsLikeLabel.setText("Feels like " + Math.round(data.getTemp()) + "°C");
@@ -213,13 +339,7 @@ public class HelloController {
         updateAqiCircle(data.getAqi());
         double dp = data.getTemp() - ((100 - data.getHumidity()) / 5.0);
         if (dewPointLabel != null) dewPointLabel.setText(Math.round(dp) + "°C");
-        if (mapView != null) {
-            String mapUrl = "https://www.openstreetmap.org/export/embed.html?bbox=" +
-                    (data.getLongitude() - 0.1) + "," + (data.getLatitude() - 0.1) + "," +
-                    (data.getLongitude() + 0.1) + "," + (data.getLatitude() + 0.1) +
-                    "&layer=mapnik&marker=" + data.getLatitude() + "," + data.getLongitude();
-            mapView.getEngine().load(mapUrl);
-        }
+        loadPreviewMap();
     }
 
     @FXML public void showHourlyScene(ActionEvent event) { switchScene(event, "hourly-view.fxml"); }
@@ -228,33 +348,61 @@ public class HelloController {
     @FXML public void showMonthlyScene(ActionEvent event) { switchScene(event, "monthly-view.fxml"); }
     @FXML public void showTrendsScene(ActionEvent event) { switchScene(event, "trends-view.fxml"); }
     @FXML public void showMapsScene(ActionEvent event) { switchScene(event, "maps-view.fxml"); }
+    @FXML public void showCitiesScene(ActionEvent event) { switchScene(event, "cities-view.fxml"); }
 
     private void switchScene(ActionEvent event, String fxmlFile) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlFile));
-            Parent root = loader.load();
-            Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            stage.getScene().setRoot(root);
-        } catch (Exception e) {
-            e.printStackTrace();
+            SceneRegistry.show(((Node) event.getSource()).getScene(), fxmlFile);
+        } catch (RuntimeException e) {
+            showFailure("Couldn't open view", e);
+        }
+    }
+
+    private void setupMaps() {
+        if (mapPane != null) mapPane.sceneProperty().addListener((obs, oldScene, scene) -> loadPreviewMap());
+        if (interactiveMapPane != null) interactiveMapPane.sceneProperty().addListener((obs, oldScene, scene) -> loadInteractiveMap());
+    }
+
+    private void loadPreviewMap() {
+        if (mapPane == null || mapPane.getScene() == null || currentWeatherData == null) return;
+        double lat = currentWeatherData.getLatitude();
+        double lon = currentWeatherData.getLongitude();
+        String url = MapTileServer.mapUrl(lat, lon, PREVIEW_MAP_ZOOM, false);
+        if (url.equals(loadedMapUrl)) return;
+        if (mapView == null) {
+            mapView = new WebView();
+            mapPane.getChildren().add(mapView);
         }
+        loadedMapUrl = url;
+        mapView.getEngine().load(url);
+        MapTileServer.prefetch(lat, lon, PREVIEW_MAP_ZOOM);
     }
 
     private void loadInteractiveMap() {
-        if (interactiveMapView == null || currentWeatherData == null) return;
-        String script = "<html><head><link rel='stylesheet' href='https://unpkg.com/leaflet@1.9.4/dist/leaflet.css'/><script src='https://unpkg.com/leaflet@1.9.4/dist/leaflet.js'></script><style>body { margin: 0; } #map { height: 100vh; width: 100vw; }</style></head><body><div id='map'></div><script>var map = L.map('map').setView([" + currentWeatherData.getLatitude() + ", " + currentWeatherData.getLongitude() + "], 8);L.tileLayer('https://{s}.tile.openstreetmap.org/{z}/{x}/{y}.png').addTo(map);var marker = L.marker([" + currentWeatherData.getLatitude() + ", " + currentWeatherData.getLongitude() + "]).addTo(map);map.on('click', function(e) { window.location.href = 'app://click?lat=' + e.latlng.lat + '&lon=' + e.latlng.lng; });</script></body></html>";
-        interactiveMapView.getEngine().loadContent(script);
-        interactiveMapView.getEngine().locationProperty().addListener((obs, oldLoc, newLoc) -> {
-            if (newLoc != null && newLoc.startsWith("app://click")) {
-                String query = newLoc.split("\\?")[1];
-                double lat = Double.parseDouble(query.split("&")[0].split("=")[1]);
-                double lon = Double.parseDouble(query.split("&")[1].split("=")[1]);
-                fetchWeatherByCoords(lat, lon);
-            }
-        });
+        if (interactiveMapPane == null || interactiveMapPane.getScene() == null || currentWeatherData == null) return;
+        double lat = currentWeatherData.getLatitude();
+        double lon = currentWeatherData.getLongitude();
+        String url = MapTileServer.mapUrl(lat, lon, INTERACTIVE_MAP_ZOOM, true);
+        if (url.equals(loadedInteractiveMapUrl)) return;
+        if (interactiveMapView == null) {
+            interactiveMapView = new WebView();
+            interactiveMapView.getEngine().locationProperty().addListener((obs, oldLoc, newLoc) -> {
+                if (newLoc != null && newLoc.startsWith("app://click")) {
+                    String query = newLoc.split("\\?")[1];
+                    double clickLat = Double.parseDouble(query.split("&")[0].split("=")[1]);
+                    double clickLon = Double.parseDouble(query.split("&")[1].split("=")[1]);
+                    fetchWeatherByCoords(clickLat, clickLon);
+                }
+            });
+            interactiveMapPane.getChildren().add(interactiveMapView);
+        }
+        loadedInteractiveMapUrl = url;
+        interactiveMapView.getEngine().load(url);
+        MapTileServer.prefetch(lat, lon, INTERACTIVE_MAP_ZOOM);
     }
 
     private void fetchWeatherByCoords(double lat, double lon) {
+        showMapStatus("Loading weather...");
         Task<WeatherData> task = new Task<>() {
             @Override
             protected WeatherData call() throws Exception {
@@ -262,46 +410,62 @@ public class HelloController {
             }
         };
         task.setOnSucceeded(e -> {
-            currentWeatherData = task.getValue();
+            if (!BackgroundTasks.isLatest(WEATHER_CHANNEL, task)) return;
+            showMapStatus(null);
+            publish(task.getValue());
             DatabaseManager.saveSearch(currentWeatherData.getCity());
-            Platform.runLater(() -> {
-                try {
-                    FXMLLoader loader = new FXMLLoader(getClass().getResource("hello-view.fxml"));
-                    Parent root = loader.load();
-                    Stage stage = (Stage) interactiveMapView.getScene().getWindow();
-                    stage.getScene().setRoot(root);
-                } catch (Exception ex) { ex.printStackTrace(); }
-            });
+            try {
+                SceneRegistry.show(interactiveMapPane.getScene(), SceneRegistry.CURRENT);
+            } catch (RuntimeException ex) {
+                showFailure("Couldn't open view", ex);
+            }
+        });
+        task.setOnFailed(e -> {
+            if (!BackgroundTasks.isLatest(WEATHER_CHANNEL, task)) return;
+            showFailure("Couldn't load weather here", task.getException());
+            showMapStatus("Couldn't load weather here. Click to try again.");
         });
-        new Thread(task).start();
+        BackgroundTasks.submitLatest(WEATHER_CHANNEL, task);
+    }
+
+    // The maps view has no status line, so progress and failures of a map click show over the map.
+    private void showMapStatus(String text) {
+        if (interactiveMapPane == null) return;
+        if (mapStatus == null) {
+            if (text == null) return;
+            mapStatus = new Label();
+            mapStatus.setStyle("-fx-background-color: rgba(37, 36, 64, 0.85); -fx-text-fill: white; -fx-padding: 6 12; -fx-background-radius: 8;");
+            mapStatus.setMouseTransparent(true);
+            StackPane.setAlignment(mapStatus, Pos.TOP_CENTER);
+            interactiveMapPane.getChildren().add(mapStatus);
+        }
+        mapStatus.setText(text);
+        mapStatus.setVisible(text != null);
     }
 
     private void populateHourlyUI() {
         if (hourlyCardsContainer == null || currentWeatherData == null) return;
         hourlyCardsContainer.getChildren().clear();
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        List<WeatherData.HourlyPoint> hourly = currentWeatherData.getHourlyForecast() != null ? currentWeatherData.getHourlyForecast() : List.of();
         double max = -100, min = 100;
-        if (currentWeatherData.getHourlyForecast() != null) {
-            for (WeatherData.HourlyPoint point : currentWeatherData.getHourlyForecast()) {
-                VBox card = new VBox(8);
-                card.setAlignment(Pos.CENTER);
-                card.getStyleClass().add("mini-forecast-card");
-                Label time = new Label(point.time());
-                time.setStyle("-fx-text-fill: white; -fx-font-weight: bold;");
-                Label icon = new Label(getEmojiForCondition(point.condition().toLowerCase()));
-                icon.setStyle("-fx-font-size: 30;");
-                Label temp = new Label(Math.round(point.temp()) + "°");
-                temp.setStyle("-fx-text-fill: white; -fx-font-size: 18;");
-                card.getChildren().addAll(time, icon, temp);
-                hourlyCardsContainer.getChildren().add(card);
-                series.getData().add(new XYChart.Data<>(point.time(), point.temp()));
-                if (point.temp() > max) max = point.temp();
-                if (point.temp() < min) min = point.temp();
-            }
+        for (WeatherData.HourlyPoint point : hourly) {
+            VBox card = new VBox(8);
+            card.setAlignment(Pos.CENTER);
+            card.getStyleClass().add("mini-forecast-card");
+            Label time = new Label(point.time());
+            time.setStyle("-fx-text-fill: white; -fx-font-weight: bold;");
+            Label icon = new Label(getEmojiForCondition(point.condition().toLowerCase()));
+            icon.setStyle("-fx-font-size: 30;");
+            Label temp = new Label(Math.round(point.temp()) + "°");
+            temp.setStyle("-fx-text-fill: white; -fx-font-size: 18;");
+            card.getChildren().addAll(time, icon, temp);
+            hourlyCardsContainer.getChildren().add(card);
+            if (point.temp() > max) max = point.temp();
+            if (point.temp() < min) min = point.temp();
         }
         if (tempChart != null) {
-            tempChart.getData().clear();
-            tempChart.getData().add(series);
+            hourlySeries = List.of(new ChartSeries(null, currentWeatherData.getForecast().temperatures(hourly.size()), i -> hourly.get(i).time()));
+            hourlyPoints = drawChart(tempChart, hourlySeries);
         }
         if (highTempLabel != null) highTempLabel.setText(Math.round(max) + "°C");
         if (lowTempLabel != null) lowTempLabel.setText(Math.round(min) + "°C");
@@ -334,20 +498,142 @@ public class HelloController {
 
     private void populateTrendsUI() {
         if (trendsChart == null || currentWeatherData == null) return;
-        trendsChart.getData().clear();
-        XYChart.Series<String, Number> series = new XYChart.Series<>();
-        series.setName("Temperature Trend");
-        double max = -100, min = 100;
-        if (currentWeatherData.getHourlyForecast() != null) {
-            for (WeatherData.HourlyPoint point : currentWeatherData.getHourlyForecast()) {
-                series.getData().add(new XYChart.Data<>(point.time(), point.temp()));
-                if (point.temp() > max) max = point.temp();
-                if (point.temp() < min) min = point.temp();
-            }
+        WeatherData data = currentWeatherData;
+        long now = Instant.now().getEpochSecond();
+        ObservationStore.getObservations(ObservationStore.locationKey(data), now - TREND_HISTORY_SECONDS, now)
+                .exceptionally(e -> {
+                    Platform.runLater(() -> showFailure("Couldn't load history", e));
+                    return List.of();
+                })
+                .thenAccept(observations -> Platform.runLater(() -> renderTrends(data, observations)));
+    }
+
+    private void renderTrends(WeatherData data, List<ObservationStore.Observation> observations) {
+        if (data != currentWeatherData) return;
+        long start = System.nanoTime();
+        long[] times = new long[observations.size()];
+        double[] temps = new double[observations.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = observations.get(i).observedAt();
+            temps[i] = observations.get(i).temp();
         }
-        trendsChart.getData().add(series);
+        SeriesDecimator observed = new SeriesDecimator(times, temps, times.length);
+        ForecastSeries forecast = data.getForecast();
+        SeriesDecimator predicted = forecast.temperatures(forecast.size());
+        trendSeries = List.of(
+                new ChartSeries("Observed", observed, i -> OBSERVED_FORMAT.format(Instant.ofEpochSecond(observed.getTime(i)))),
+                new ChartSeries("Temperature Trend", predicted, forecast::trendLabel));
+        trendPoints = drawChart(trendsChart, trendSeries);
+        double max = Math.max(-100, Math.max(observed.getMax(), predicted.getMax()));
+        double min = Math.min(100, Math.min(observed.getMin(), predicted.getMin()));
         if (highTempLabel != null) highTempLabel.setText(Math.round(max) + "°C");
         if (lowTempLabel != null) lowTempLabel.setText(Math.round(min) + "°C");
+        TRENDS_UI_TIMER.recordSince(start);
+    }
+
+    private record ChartSeries(String name, SeriesDecimator points, IntFunction<String> label) {}
+
+    // Redraw only when the width moves the point budget to another step, not on every resize pulse.
+    private void setupCharts() {
+        if (trendsChart != null) trendsChart.widthProperty().addListener((obs, oldWidth, width) -> {
+            if (pointBudget(trendsChart) != trendPoints) trendPoints = drawChart(trendsChart, trendSeries);
+        });
+        if (tempChart != null) tempChart.widthProperty().addListener((obs, oldWidth, width) -> {
+            if (pointBudget(tempChart) != hourlyPoints) hourlyPoints = drawChart(tempChart, hourlySeries);
+        });
+    }
+
+    private static int pointBudget(LineChart<?, ?> chart) {
+        return Math.max(8, (int) (chart.getWidth() / CHART_PIXELS_PER_POINT) / 8 * 8);
+    }
+
+    private static int drawChart(LineChart<String, Number> chart, List<ChartSeries> sources) {
+        int budget = pointBudget(chart);
+        List<XYChart.Series<String, Number>> drawn = new ArrayList<>(sources.size());
+        for (ChartSeries source : sources) {
+            if (source.points().isEmpty()) continue;
+            int[] indices = source.points().indices(budget);
+            List<XYChart.Data<String, Number>> points = new ArrayList<>(indices.length);
+            for (int i : indices) points.add(new XYChart.Data<>(source.label().apply(i), source.points().getValue(i)));
+            drawn.add(new XYChart.Series<>(source.name(), FXCollections.observableArrayList(points)));
+        }
+        chart.getData().setAll(drawn);
+        return budget;
+    }
+
+    @FXML
+    public void handleAddCities() {
+        if (citiesField == null) return;
+        for (String city : citiesField.getText().split(",")) {
+            if (!city.isBlank()) trackedCities.add(city.trim());
+        }
+        citiesField.clear();
+        populateCitiesUI();
+    }
+
+    private void populateCitiesUI() {
+        if (citiesGrid == null) return;
+        String current = currentWeatherData == null ? null : currentWeatherData.getCity();
+        DatabaseManager.getHistory().thenAccept(history -> Platform.runLater(() -> {
+            Set<String> cities = new LinkedHashSet<>();
+            if (current != null) cities.add(current);
+            cities.addAll(history);
+            cities.addAll(trackedCities);
+            long start = System.nanoTime();
+            loadCityGrid(cities);
+            CITIES_UI_TIMER.recordSince(start);
+        }));
+    }
+
+    private void loadCityGrid(Set<String> cities) {
+        if (cityBatch != null) cityBatch.cancel(true);
+        citiesGrid.getChildren().clear();
+        Map<String, CityCard> cards = new LinkedHashMap<>();
+        for (String city : cities) {
+            CityCard card = buildCityCard(city);
+            cards.put(city, card);
+            citiesGrid.getChildren().add(card.card());
+        }
+        int total = cards.size();
+        int[] loaded = new int[1];
+        if (citiesStatusLabel != null) citiesStatusLabel.setText("0 / " + total);
+        cityBatch = ApiService.fetchWeatherBatch(cards.keySet(), result -> Platform.runLater(() -> {
+            CityCard card = cards.get(result.city());
+            if (result.isSuccess()) {
+                WeatherData data = result.data();
+                card.icon().setText(getEmojiForCondition(data.getDescription().toLowerCase()));
+                card.temp().setText(Math.round(data.getTemp()) + "°C");
+                card.condition().setText(data.getDescription());
+            } else {
+                card.icon().setText("⚠️");
+                card.temp().setText("--°C");
+                card.condition().setText("Unavailable");
+            }
+            if (citiesStatusLabel != null) citiesStatusLabel.setText(++loaded[0] + " / " + total);
+        }));
+    }
+
+    private record CityCard(VBox card, Label icon, Label temp, Label condition) {}
+
+    private CityCard buildCityCard(String city) {
+        VBox card = new VBox(8);
+        card.setAlignment(Pos.CENTER);
+        card.setPrefSize(200, 150);
+        card.getStyleClass().add("detail-tile");
+        Label name = new Label(city);
+        name.setStyle("-fx-text-fill: white; -fx-font-weight: bold; -fx-font-size: 16;");
+        Label icon = new Label("⏳");
+        icon.setStyle("-fx-font-size: 30;");
+        Label temp = new Label("--°C");
+        temp.getStyleClass().add("tile-value");
+        Label condition = new Label("Loading...");
+        condition.setStyle("-fx-text-fill: #A09EBC;");
+        card.getChildren().addAll(name, icon, temp, condition);
+        card.setOnMouseClicked(e -> {
+            performSearch(city);
+            SceneRegistry.show(card.getScene(), SceneRegistry.CURRENT);
+        });
+        return new CityCard(card, icon, temp, condition);
     }
 
     @FXML
@@ -357,64 +643,82 @@ public class HelloController {
         monthBar.getChildren().forEach(node -> node.getStyleClass().setAll("month-tab"));
         clicked.getStyleClass().setAll("month-tab-active");
         try {
-            int monthValue = java.time.Month.valueOf(clicked.getText().toUpperCase()).getValue();
+            int monthValue = java.time.Month.valueOf(clicked.getText().toUpperCase(Locale.ROOT)).getValue();
             populateCalendar(monthValue);
-        } catch (Exception e) { e.printStackTrace(); }
+        } catch (RuntimeException e) {
+            showFailure("Couldn't open month", e);
+        }
     }
 
     private void populateCalendar(int monthValue) {
         if (calendarGrid == null || currentWeatherData == null) return;
-        calendarGrid.getChildren().clear();
+        selectedMonth = monthValue;
+        WeatherData data = currentWeatherData;
+        String location = ObservationStore.locationKey(data);
         int year = LocalDate.now().getYear();
-        LocalDate firstOfMonth = LocalDate.of(year, monthValue, 1);
-        int dayOfWeekOffset = firstOfMonth.getDayOfWeek().getValue() % 7;
-        int daysInMonth = YearMonth.of(year, monthValue).lengthOfMonth();
-        Task<List<MonthlyData>> task = new Task<>() {
-            @Override protected List<MonthlyData> call() { return ApiService.fetchMonthlyForecast(currentWeatherData.getCity()); }
-        };
-        task.setOnSucceeded(e -> {
-            List<MonthlyData> monthData = task.getValue();
-            int dayCounter = 1;
-            for (int row = 0; row < 6; row++) {
-                for (int col = 0; col < 7; col++) {
-                    int slotIndex = (row * 7) + col;
-                    if (slotIndex < dayOfWeekOffset || dayCounter > daysInMonth) {
-                        VBox emptyBox = new VBox();
-                        calendarGrid.add(emptyBox, col, row);
-                        continue;
-                    }
-                    VBox dayCard = new VBox(5);
-                    dayCard.getStyleClass().add("calendar-day-card");
-                    Label dayNum = new Label(String.valueOf(dayCounter));
-                    dayNum.setStyle("-fx-text-fill: #5D5A88; -fx-font-size: 14;");
-                    final int finalDay = dayCounter;
-                    MonthlyData data = monthData.stream().filter(d -> d.getDay() == finalDay).findFirst().orElse(null);
-                    if (data != null) {
-                        HBox content = new HBox(10);
-                        content.setAlignment(Pos.CENTER_LEFT);
-                        Label icon = new Label(getEmojiForCondition(data.getCondition().toLowerCase()));
-                        icon.setStyle("-fx-font-size: 22;");
-                        VBox temps = new VBox(0);
-                        Label high = new Label(Math.round(data.getHigh()) + "°");
-                        high.setStyle("-fx-text-fill: white; -fx-font-weight: bold;");
-                        Label low = new Label(Math.round(data.getLow()) + "°");
-                        low.setStyle("-fx-text-fill: #A09EBC;");
-                        temps.getChildren().addAll(high, low);
-                        content.getChildren().addAll(icon, temps);
-                        dayCard.getChildren().addAll(dayNum, content);
-                    } else {
-                        dayCard.getChildren().add(dayNum);
-                        dayCard.setOpacity(0.4);
-                    }
-                    if (dayCounter == LocalDate.now().getDayOfMonth() && monthValue == LocalDate.now().getMonthValue()) {
-                        dayCard.getStyleClass().add("calendar-day-card-today");
-                    }
-                    calendarGrid.add(dayCard, col, row);
-                    dayCounter++;
-                }
+        WeatherRollups.getMonth(location, YearMonth.of(year, monthValue))
+                .exceptionally(e -> {
+                    Platform.runLater(() -> showFailure("Couldn't load calendar", e));
+                    return List.of();
+                })
+                .thenAccept(rollups -> Platform.runLater(() -> renderCalendar(data, CalendarMonth.of(location, year, monthValue, rollups))));
+    }
+
+    private void renderCalendar(WeatherData data, CalendarMonth month) {
+        if (data != currentWeatherData || month.getMonth() != selectedMonth) return;
+        long start = System.nanoTime();
+        if (calendarCells == null) buildCalendarGrid();
+        LocalDate today = LocalDate.now();
+        int monthValue = month.getMonth();
+        for (int slot = 0; slot < CalendarMonth.SLOTS; slot++) {
+            CalendarCell cell = calendarCells[slot];
+            int day = month.dayAt(slot);
+            cell.card.setVisible(day != 0);
+            if (day == 0) continue;
+            cell.dayNum.setText(String.valueOf(day));
+            boolean hasData = month.hasData(day);
+            cell.content.setVisible(hasData);
+            cell.card.setOpacity(hasData ? 1.0 : 0.4);
+            if (hasData) {
+                cell.icon.setText(getEmojiForCondition(month.getCondition(day).toLowerCase()));
+                cell.high.setText(Math.round(month.getHigh(day)) + "°");
+                cell.low.setText(Math.round(month.getLow(day)) + "°");
             }
-        });
-        new Thread(task).start();
+            boolean isToday = day == today.getDayOfMonth() && monthValue == today.getMonthValue();
+            if (isToday != cell.card.getStyleClass().contains("calendar-day-card-today")) {
+                if (isToday) cell.card.getStyleClass().add("calendar-day-card-today");
+                else cell.card.getStyleClass().remove("calendar-day-card-today");
+            }
+        }
+        CALENDAR_UI_TIMER.recordSince(start);
+    }
+
+    private record CalendarCell(VBox card, Label dayNum, HBox content, Label icon, Label high, Label low) {}
+
+    private void buildCalendarGrid() {
+        calendarGrid.getChildren().clear();
+        calendarCells = new CalendarCell[CalendarMonth.SLOTS];
+        for (int slot = 0; slot < CalendarMonth.SLOTS; slot++) {
+            VBox dayCard = new VBox(5);
+            dayCard.getStyleClass().add("calendar-day-card");
+            Label dayNum = new Label();
+            dayNum.setStyle("-fx-text-fill: #5D5A88; -fx-font-size: 14;");
+            HBox content = new HBox(10);
+            content.setAlignment(Pos.CENTER_LEFT);
+            content.managedProperty().bind(content.visibleProperty());
+            Label icon = new Label();
+            icon.setStyle("-fx-font-size: 22;");
+            VBox temps = new VBox(0);
+            Label high = new Label();
+            high.setStyle("-fx-text-fill: white; -fx-font-weight: bold;");
+            Label low = new Label();
+            low.setStyle("-fx-text-fill: #A09EBC;");
+            temps.getChildren().addAll(high, low);
+            content.getChildren().addAll(icon, temps);
+            dayCard.getChildren().addAll(dayNum, content);
+            calendarGrid.add(dayCard, slot % 7, slot / 7);
+            calendarCells[slot] = new CalendarCell(dayCard, dayNum, content, icon, high, low);
+        }
     }
 
     private String getEmojiForCondition(String cond) {
@@ -0,0 +1,310 @@
+package com.example.weatherapp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * GET transport shared by the API calls. Every attempt has a deadline for the response headers
+ * (the request timeout) and one for reading the body; failed attempts that are worth repeating are
+ * retried with jittered exponential backoff, and each host sits behind its own circuit breaker.
+ * Failures surface as {@link ApiException}. Responses are requested gzip-compressed and
+ * decompressed while the decoder reads them, so no body is ever buffered whole.
+ */
+public class HttpTransport {
+    /** Where an endpoint's latency and transfer sizes are recorded, under the same metric name. */
+    public record Endpoint(String name, LatencyHistogram latency, TransferCounter transfer) {
+        public static Endpoint named(String name) {
+            return new Endpoint(name, Metrics.histogram(name), Metrics.transfer(name));
+        }
+
+        /** The name without its metric group, e.g. "forecast" for "http.forecast"; used to file recorded responses. */
+        public String kind() {
+            return name.substring(name.lastIndexOf('.') + 1);
+        }
+    }
+
+    /** Receives a copy of every successfully decoded body, e.g. to record fixtures for a replay server. */
+    @FunctionalInterface
+    public interface ResponseTap {
+        void accept(Endpoint endpoint, URI uri, byte[] body);
+    }
+
+    private static final int BREAKER_FAILURE_THRESHOLD = 5;
+    private static final Duration BREAKER_OPEN = Duration.ofSeconds(30);
+
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "http-transport");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final HttpClient client;
+    private final Duration requestTimeout;
+    private final Duration bodyTimeout;
+    private final long baseBackoffMillis;
+    private final int breakerFailureThreshold;
+    private final long breakerOpenMillis;
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private volatile ResponseTap tap;
+
+    public HttpTransport(HttpClient client, Duration requestTimeout, Duration bodyTimeout, Duration baseBackoff) {
+        this(client, requestTimeout, bodyTimeout, baseBackoff, BREAKER_FAILURE_THRESHOLD, BREAKER_OPEN);
+    }
+
+    public HttpTransport(HttpClient client, Duration requestTimeout, Duration bodyTimeout, Duration baseBackoff,
+                         int breakerFailureThreshold, Duration breakerOpen) {
+        this.client = client;
+        this.requestTimeout = requestTimeout;
+        this.bodyTimeout = bodyTimeout;
+        this.baseBackoffMillis = baseBackoff.toMillis();
+        this.breakerFailureThreshold = breakerFailureThreshold;
+        this.breakerOpenMillis = breakerOpen.toMillis();
+    }
+
+    public <T> CompletableFuture<T> get(HttpRequest.Builder request, int maxAttempts, Endpoint endpoint,
+                                        ApiService.Decoder<T> decoder) {
+        return get(request, requestTimeout, maxAttempts, endpoint, decoder);
+    }
+
+    public <T> CompletableFuture<T> get(HttpRequest.Builder request, Duration timeout, int maxAttempts,
+                                        Endpoint endpoint, ApiService.Decoder<T> decoder) {
+        HttpRequest built = request.GET().timeout(timeout).header("Accept-Encoding", "gzip").build();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        attempt(built, 1, maxAttempts, endpoint, decoder, result);
+        return result;
+    }
+
+    /** Installs (or, with null, removes) the tap; bodies are only copied while one is installed. */
+    public void setResponseTap(ResponseTap tap) {
+        this.tap = tap;
+    }
+
+    public CircuitBreaker breakerFor(String host) {
+        return breakers.computeIfAbsent(host, h -> {
+            CircuitBreaker breaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenMillis);
+            Metrics.gauge("breaker." + h + ".open", () -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1);
+            return breaker;
+        });
+    }
+
+    private <T> void attempt(HttpRequest request, int attempt, int maxAttempts, Endpoint endpoint,
+                             ApiService.Decoder<T> decoder, CompletableFuture<T> result) {
+        if (result.isDone()) return;
+        String host = request.uri().getHost();
+        CircuitBreaker breaker = breakerFor(host);
+        if (!breaker.tryAcquire()) {
+            result.completeExceptionally(ApiException.circuitOpen(host));
+            return;
+        }
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<InputStream>> exchange;
+        try {
+            exchange = client.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream());
+        } catch (RuntimeException e) {
+            breaker.onAbandoned();
+            result.completeExceptionally(e);
+            return;
+        }
+        result.whenComplete((value, e) -> {
+            if (result.isCancelled() && exchange.cancel(true)) breaker.onAbandoned();
+        });
+        exchange.whenComplete((response, e) -> {
+            if (exchange.isCancelled()) {
+                breaker.onAbandoned();
+                return;
+            }
+            // Whatever goes wrong in here, the caller's future must still complete.
+            try {
+                handle(request, attempt, maxAttempts, endpoint, decoder, result, breaker, start, response, e);
+            } catch (RuntimeException unexpected) {
+                breaker.onAbandoned();
+                result.completeExceptionally(unexpected);
+            }
+        });
+    }
+
+    private <T> void handle(HttpRequest request, int attempt, int maxAttempts, Endpoint endpoint, ApiService.Decoder<T> decoder,
+                            CompletableFuture<T> result, CircuitBreaker breaker, long start,
+                            HttpResponse<InputStream> response, Throwable error) {
+        String host = request.uri().getHost();
+        ApiException failure;
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            failure = ApiException.transport(host, cause, attempt);
+            Metrics.recordHttpTransportError();
+        } else {
+            try {
+                T value = read(response, attempt, endpoint, decoder);
+                endpoint.latency().recordSince(start);
+                breaker.onSuccess();
+                result.complete(value);
+                return;
+            } catch (ApiException readFailure) {
+                failure = readFailure;
+                if (failure.getKind() == ApiException.Kind.DECODE) Metrics.recordHttpDecodeError();
+                else Metrics.recordHttpStatus(response.statusCode());
+            } catch (IOException readFailure) {
+                failure = ApiException.transport(host, readFailure, attempt);
+                Metrics.recordHttpTransportError();
+            }
+            endpoint.latency().recordSince(start);
+        }
+
+        // A body we can't decode says nothing about the host's health, so it neither trips nor resets the breaker.
+        if (failure.getKind() == ApiException.Kind.DECODE) breaker.onAbandoned();
+        else if (failure.isHostFailure()) breaker.onFailure();
+        else breaker.onSuccess();
+        if (failure.isRetryable() && attempt < maxAttempts && !result.isDone()) {
+            scheduler.schedule(() -> attempt(request, attempt + 1, maxAttempts, endpoint, decoder, result),
+                    backoffMillis(attempt), TimeUnit.MILLISECONDS);
+        } else {
+            result.completeExceptionally(failure);
+        }
+    }
+
+    private <T> T read(HttpResponse<InputStream> response, int attempt, Endpoint endpoint,
+                       ApiService.Decoder<T> decoder) throws IOException, ApiException {
+        String host = response.uri().getHost();
+        CountingInputStream wire = new CountingInputStream(response.body());
+        try (wire) {
+            if (response.statusCode() != 200) {
+                throw ApiException.status(host, response.statusCode(), attempt);
+            }
+            // The request timeout only covers the headers; closing the stream unblocks a stalled body read.
+            AtomicBoolean expired = new AtomicBoolean();
+            ScheduledFuture<?> deadline = scheduler.schedule(() -> {
+                expired.set(true);
+                closeQuietly(response.body());
+            }, bodyTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            try {
+                boolean gzip = response.headers().firstValue("Content-Encoding")
+                        .filter(encoding -> encoding.equalsIgnoreCase("gzip")).isPresent();
+                CountingInputStream decoded = gzip ? new CountingInputStream(new GZIPInputStream(wire, 8192)) : wire;
+                ResponseTap tap = this.tap;
+                T value = tap != null ? decodeAndTap(tap, response, endpoint, decoded, decoder) : decoder.decode(decoded);
+                endpoint.transfer().record(wire.count, decoded.count, gzip);
+                return value;
+            } catch (IOException e) {
+                if (expired.get()) throw new HttpTimeoutException("response body not received within " + bodyTimeout.toMillis() + " ms");
+                // The bytes arrived intact but didn't parse (bad JSON, corrupt gzip): retrying would fetch the same payload.
+                if (!wire.failed) throw ApiException.decode(host, e, attempt);
+                throw e;
+            } catch (RuntimeException e) {
+                throw ApiException.decode(host, e, attempt);
+            } finally {
+                deadline.cancel(false);
+            }
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+            // Already closed.
+        }
+    }
+
+    // Tap installed only: keeps a copy of the decompressed body and hands it over once the decoder accepted it.
+    private static <T> T decodeAndTap(ResponseTap tap, HttpResponse<InputStream> response, Endpoint endpoint, InputStream body,
+                                      ApiService.Decoder<T> decoder) throws IOException {
+        ByteArrayOutputStream copy = new ByteArrayOutputStream();
+        InputStream tee = new FilterInputStream(body) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) copy.write(b);
+                return b;
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) copy.write(buffer, offset, n);
+                return n;
+            }
+
+            @Override
+            public void close() {
+                // The parser closes its source; the rest of the body is still drained into the copy below.
+            }
+        };
+        T value = decoder.decode(tee);
+        tee.transferTo(OutputStream.nullOutputStream());
+        tap.accept(endpoint, response.uri(), copy.toByteArray());
+        return value;
+    }
+
+    // Counts bytes and remembers whether the stream underneath failed, which tells network errors from decode errors.
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+        boolean failed;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            try {
+                int b = super.read();
+                if (b >= 0) count++;
+                return b;
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            try {
+                int n = super.read(buffer, offset, length);
+                if (n > 0) count += n;
+                return n;
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            try {
+                long skipped = super.skip(n);
+                count += skipped;
+                return skipped;
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    }
+
+    // Equal jitter: between half and all of base * 2^(attempt - 1), so retries from many callers spread out.
+    private long backoffMillis(int attempt) {
+        long ceiling = baseBackoffMillis << Math.min(attempt - 1, 10);
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+}
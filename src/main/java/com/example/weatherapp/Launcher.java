@@ -2,8 +2,14 @@ package com.example.weatherapp;
 
 import javafx.application.Application;
 
+import java.util.List;
+
 public class Launcher {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (List.of(args).contains("--server")) {
+            WeatherProxyServer.main(args);
+            return;
+        }
         Application.launch(HelloApplication.class, args);
     }
 }
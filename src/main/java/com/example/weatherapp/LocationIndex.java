@@ -0,0 +1,126 @@
+package com.example.weatherapp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Grid index of recently fetched locations. A lookup scans the cells that can hold a point within
+ * the radius and returns the closest observation that is still fresh. Oldest entries are evicted
+ * once the index is full.
+ */
+public class LocationIndex {
+    private static final double EARTH_RADIUS_KM = 6371.0;
+    private static final double KM_PER_DEGREE = 111.2;
+
+    private record Entry(double lat, double lon, WeatherData data, long storedAtNanos) {}
+
+    private final double radiusKm;
+    private final long maxAgeNanos;
+    private final int maxEntries;
+    private final double cellDegrees;
+    private final Map<Long, List<Entry>> cells = new HashMap<>();
+    private final ArrayDeque<Entry> insertionOrder = new ArrayDeque<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public LocationIndex(double radiusKm, long maxAgeMillis, int maxEntries) {
+        this.radiusKm = radiusKm;
+        this.maxAgeNanos = maxAgeMillis * 1_000_000L;
+        this.maxEntries = maxEntries;
+        this.cellDegrees = Math.max(radiusKm / KM_PER_DEGREE, 0.001);
+    }
+
+    public synchronized void put(WeatherData data) {
+        Entry entry = new Entry(data.getLatitude(), data.getLongitude(), data, System.nanoTime());
+        cells.computeIfAbsent(cellKey(cellOf(entry.lat()), cellOf(entry.lon())), k -> new ArrayList<>(2)).add(entry);
+        insertionOrder.addLast(entry);
+        while (insertionOrder.size() > maxEntries) {
+            remove(insertionOrder.pollFirst());
+        }
+    }
+
+    /** Returns the closest fresh observation within the radius, or null if the caller has to fetch. */
+    public synchronized WeatherData findNearest(double lat, double lon) {
+        long now = System.nanoTime();
+        int latCell = cellOf(lat);
+        int lonCell = cellOf(lon);
+        // Longitude degrees shrink towards the poles, so widen the scan to still cover the radius.
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        int lonSpan = (int) Math.ceil(radiusKm / (KM_PER_DEGREE * cosLat) / cellDegrees);
+
+        Entry best = null;
+        double bestDistance = radiusKm;
+        for (int dLat = -1; dLat <= 1; dLat++) {
+            for (int dLon = -lonSpan; dLon <= lonSpan; dLon++) {
+                List<Entry> bucket = cells.get(cellKey(latCell + dLat, lonCell + dLon));
+                if (bucket == null) continue;
+                for (Entry entry : bucket) {
+                    if (now - entry.storedAtNanos() > maxAgeNanos) continue;
+                    double distance = distanceKm(lat, lon, entry.lat(), entry.lon());
+                    if (distance <= bestDistance) {
+                        bestDistance = distance;
+                        best = entry;
+                    }
+                }
+            }
+        }
+        pruneExpired(now);
+        if (best == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return best.data();
+    }
+
+    public synchronized int size() {
+        return insertionOrder.size();
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+
+    private void pruneExpired(long now) {
+        Iterator<Entry> it = insertionOrder.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (now - entry.storedAtNanos() <= maxAgeNanos) break;
+            it.remove();
+            removeFromCell(entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        if (entry != null) removeFromCell(entry);
+    }
+
+    private void removeFromCell(Entry entry) {
+        long key = cellKey(cellOf(entry.lat()), cellOf(entry.lon()));
+        List<Entry> bucket = cells.get(key);
+        if (bucket == null) return;
+        bucket.remove(entry);
+        if (bucket.isEmpty()) cells.remove(key);
+    }
+
+    private int cellOf(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(int latCell, int lonCell) {
+        return ((long) latCell << 32) | (lonCell & 0xffffffffL);
+    }
+
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
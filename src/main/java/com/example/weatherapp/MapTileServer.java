@@ -0,0 +1,180 @@
+package com.example.weatherapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Loopback HTTP server behind both map WebViews. It serves the map page and the Leaflet assets
+ * bundled with the app (unpacked from the Leaflet WebJar at build time, see pom.xml) and proxies
+ * OSM tiles through the on-disk {@link TileCache}, so panning over visited areas never leaves the machine.
+ */
+public class MapTileServer {
+    private static final String TILE_UPSTREAM = "https://tile.openstreetmap.org/{z}/{x}/{y}.png";
+    private static final Path CACHE_DIR = Path.of(System.getProperty("weatherapp.cache.dir",
+            Path.of(System.getProperty("user.home"), ".skycast").toString()));
+    private static final long MAX_TILE_BYTES = Long.getLong("weatherapp.tiles.maxMb", 256) * 1024 * 1024;
+    private static final Duration TILE_TIMEOUT = Duration.ofSeconds(Long.getLong("weatherapp.tiles.timeoutSeconds", 10));
+    private static final int PREFETCH_RADIUS = 2;
+    private static final Pattern TILE_PATH = Pattern.compile("/tiles/(\\d+)/(\\d+)/(\\d+)\\.png");
+    private static final Pattern ASSET_NAME = Pattern.compile("[A-Za-z0-9_-]+(/[A-Za-z0-9_-]+)*\\.(js|css|png)");
+
+    private static final HttpClient client = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private static HttpServer server;
+    private static ExecutorService executor;
+    private static ExecutorService prefetcher;
+    private static TileCache tiles;
+
+    public static synchronized String getBaseUrl() {
+        if (server == null) start();
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public static String mapUrl(double lat, double lon, int zoom, boolean clickable) {
+        return getBaseUrl() + String.format(Locale.ROOT, "/map.html?lat=%.5f&lon=%.5f&zoom=%d&clickable=%d",
+                lat, lon, zoom, clickable ? 1 : 0);
+    }
+
+    /** Warms the tile cache around a location for the given zoom and the levels either side of it. */
+    public static void prefetch(double lat, double lon, int zoom) {
+        getBaseUrl();
+        for (int z = Math.max(0, zoom - 1); z <= Math.min(19, zoom + 1); z++) {
+            int n = 1 << z;
+            int centerX = lonToTileX(lon, z);
+            int centerY = latToTileY(lat, z);
+            for (int dx = -PREFETCH_RADIUS; dx <= PREFETCH_RADIUS; dx++) {
+                for (int dy = -PREFETCH_RADIUS; dy <= PREFETCH_RADIUS; dy++) {
+                    int x = Math.floorMod(centerX + dx, n);
+                    int y = centerY + dy;
+                    if (y < 0 || y >= n || tiles.contains(z, x, y)) continue;
+                    int tileZ = z;
+                    prefetcher.execute(() -> {
+                        try {
+                            tiles.get(tileZ, x, y).get(TILE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+                        } catch (Exception ignored) {
+                            // A tile that fails to prefetch is simply fetched on demand later.
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    public static synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        executor.shutdownNow();
+        prefetcher.shutdownNow();
+        server = null;
+    }
+
+    static int lonToTileX(double lon, int zoom) {
+        return (int) Math.floor((lon + 180.0) / 360.0 * (1 << zoom));
+    }
+
+    static int latToTileY(double lat, int zoom) {
+        double latRad = Math.toRadians(lat);
+        return (int) Math.floor((1 - Math.log(Math.tan(latRad) + 1 / Math.cos(latRad)) / Math.PI) / 2 * (1 << zoom));
+    }
+
+    private static void start() {
+        try {
+            tiles = new TileCache(CACHE_DIR.resolve("tiles"), MAX_TILE_BYTES, TILE_UPSTREAM, client, TILE_TIMEOUT);
+            TileCache cache = tiles;
+            Metrics.gauge("cache.tiles.hits", cache::getHits);
+            Metrics.gauge("cache.tiles.misses", cache::getMisses);
+            Metrics.gauge("cache.tiles.bytes", cache::getTotalBytes);
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        executor = Executors.newFixedThreadPool(4, daemonThread("map-tile-server"));
+        // Two threads keep prefetching polite towards the public tile servers.
+        prefetcher = Executors.newFixedThreadPool(2, daemonThread("map-tile-prefetch"));
+        server.setExecutor(executor);
+        server.createContext("/tiles/", MapTileServer::serveTile);
+        server.createContext("/leaflet/", MapTileServer::serveAsset);
+        server.createContext("/map.html", exchange -> {
+            try (InputStream in = MapTileServer.class.getResourceAsStream("map.html")) {
+                send(exchange, 200, "text/html; charset=utf-8", in.readAllBytes());
+            }
+        });
+        server.start();
+    }
+
+    private static void serveTile(HttpExchange exchange) throws IOException {
+        Matcher m = TILE_PATH.matcher(exchange.getRequestURI().getPath());
+        if (!m.matches()) {
+            send(exchange, 404, "text/plain", new byte[0]);
+            return;
+        }
+        // Bounded so a stalled tile server can't hold on to every server thread; cached tiles keep loading.
+        try {
+            byte[] tile = tiles.get(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)))
+                    .get(TILE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            send(exchange, 200, "image/png", tile);
+        } catch (TimeoutException e) {
+            send(exchange, 504, "text/plain", new byte[0]);
+        } catch (ExecutionException e) {
+            boolean timedOut = e.getCause() instanceof TimeoutException || e.getCause() instanceof HttpTimeoutException;
+            send(exchange, timedOut ? 504 : 502, "text/plain", new byte[0]);
+        } catch (Exception e) {
+            send(exchange, 502, "text/plain", new byte[0]);
+        }
+    }
+
+    private static void serveAsset(HttpExchange exchange) throws IOException {
+        String name = exchange.getRequestURI().getPath().substring("/leaflet/".length());
+        if (!ASSET_NAME.matcher(name).matches()) {
+            send(exchange, 404, "text/plain", new byte[0]);
+            return;
+        }
+        String contentType = name.endsWith(".js") ? "application/javascript" : name.endsWith(".css") ? "text/css" : "image/png";
+        try (InputStream bundled = MapTileServer.class.getResourceAsStream("leaflet/" + name)) {
+            if (bundled == null) {
+                send(exchange, 404, "text/plain", new byte[0]);
+                return;
+            }
+            send(exchange, 200, contentType, bundled.readAllBytes());
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        if (status == 200) exchange.getResponseHeaders().set("Cache-Control", "max-age=86400");
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static ThreadFactory daemonThread(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
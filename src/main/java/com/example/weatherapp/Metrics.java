@@ -0,0 +1,181 @@
+package com.example.weatherapp;
+
+import com.sun.net.httpserver.HttpServer;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide metrics: latency histograms, HTTP error and transfer counters, and gauges read on demand.
+ * Callers look a histogram or counter up once and keep it in a static field, so recording never touches the
+ * registry. Everything is published as one JMX bean and as plain text on a loopback endpoint.
+ */
+public class Metrics {
+    private static final int METRICS_PORT = Integer.getInteger("weatherapp.metrics.port", 9471);
+    private static final String OBJECT_NAME = "com.example.weatherapp:type=Metrics";
+
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private static final Map<String, TransferCounter> transfers = new ConcurrentHashMap<>();
+    private static final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+    private static final AtomicLongArray httpStatusErrors = new AtomicLongArray(600);
+    private static final LongAdder httpTransportErrors = new LongAdder();
+    private static final LongAdder httpDecodeErrors = new LongAdder();
+
+    private static final System.Logger LOG = System.getLogger(Metrics.class.getName());
+
+    private static HttpServer server;
+
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new LatencyHistogram());
+    }
+
+    public static TransferCounter transfer(String name) {
+        return transfers.computeIfAbsent(name, key -> new TransferCounter());
+    }
+
+    public static void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /** Counts a non-success HTTP status; anything outside 100..599 is ignored. */
+    public static void recordHttpStatus(int status) {
+        if (status >= 100 && status < 600) httpStatusErrors.incrementAndGet(status);
+    }
+
+    /** Counts a request that failed without a response (connect, timeout, reset). */
+    public static void recordHttpTransportError() {
+        httpTransportErrors.increment();
+    }
+
+    /** Counts a successful response whose body the decoder rejected. */
+    public static void recordHttpDecodeError() {
+        httpDecodeErrors.increment();
+    }
+
+    public static Map<String, Double> snapshot() {
+        Map<String, Double> values = new TreeMap<>();
+        histograms.forEach((name, histogram) -> {
+            values.put(name + ".count", (double) histogram.getCount());
+            values.put(name + ".mean_ms", histogram.getMeanMillis());
+            values.put(name + ".p50_ms", histogram.getPercentileMillis(0.50));
+            values.put(name + ".p90_ms", histogram.getPercentileMillis(0.90));
+            values.put(name + ".p99_ms", histogram.getPercentileMillis(0.99));
+            values.put(name + ".max_ms", histogram.getMaxMillis());
+            values.put(name + ".failures", (double) histogram.getFailures());
+        });
+        transfers.forEach((name, transfer) -> {
+            values.put(name + ".responses", (double) transfer.getResponses());
+            values.put(name + ".compressed", (double) transfer.getCompressed());
+            values.put(name + ".wire_bytes", (double) transfer.getWireBytes());
+            values.put(name + ".decoded_bytes", (double) transfer.getDecodedBytes());
+            values.put(name + ".compression_ratio", transfer.getCompressionRatio());
+        });
+        for (int status = 100; status < 600; status++) {
+            long errors = httpStatusErrors.get(status);
+            if (errors > 0) values.put("http.errors.status." + status, (double) errors);
+        }
+        values.put("http.errors.transport", (double) httpTransportErrors.sum());
+        values.put("http.errors.decode", (double) httpDecodeErrors.sum());
+        gauges.forEach((name, gauge) -> values.put(name, gauge.getAsDouble()));
+        return values;
+    }
+
+    public static synchronized void start() {
+        if (server != null) return;
+        try {
+            MBeanServer mbeans = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!mbeans.isRegistered(name)) mbeans.registerMBean(new SnapshotBean(), name);
+        } catch (JMException e) {
+            LOG.log(System.Logger.Level.WARNING, "Couldn't register the metrics MBean", e);
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), METRICS_PORT), 0);
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Couldn't start the metrics endpoint on port " + METRICS_PORT, e);
+            return;
+        }
+        server.createContext("/metrics", exchange -> {
+            StringBuilder text = new StringBuilder(4096);
+            snapshot().forEach((name, value) -> text.append(name).append(' ')
+                    .append(String.format(Locale.ROOT, "%.3f", value)).append('\n'));
+            byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    public static synchronized void stop() {
+        if (server == null) return;
+        server.stop(0);
+        server = null;
+    }
+
+    /** Exposes each snapshot entry as a read-only Double attribute. */
+    private static class SnapshotBean implements DynamicMBean {
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Double value = snapshot().get(attribute);
+            if (value == null) throw new AttributeNotFoundException(attribute);
+            return value;
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            Map<String, Double> values = snapshot();
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                Double value = values.get(attribute);
+                if (value != null) list.add(new Attribute(attribute, value));
+            }
+            return list;
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MBeanAttributeInfo[] attributes = snapshot().keySet().stream()
+                    .map(name -> new MBeanAttributeInfo(name, "java.lang.Double", name, true, false, false))
+                    .toArray(MBeanAttributeInfo[]::new);
+            return new MBeanInfo(getClass().getName(), "SkyCast metrics", attributes, null, null, null);
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only");
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            throw new UnsupportedOperationException(actionName);
+        }
+    }
+}
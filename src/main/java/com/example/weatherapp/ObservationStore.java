@@ -0,0 +1,166 @@
+package com.example.weatherapp;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Time-series history of every fetched WeatherData. Writes are queued and group-committed on the
+ * database writer thread, so recording never blocks a fetch; everything queued while a flush runs
+ * goes out together in the next transaction. The daily rollups of every day a flush touches are
+ * brought up to date in the same transaction.
+ */
+public class ObservationStore {
+    public record Observation(String location, long observedAt, double latitude, double longitude, double temp,
+                              int humidity, int pressure, double windSpeed, int aqi, String description) {}
+
+    private static final String INSERT_OBSERVATION = "INSERT OR REPLACE INTO observations(location, observed_at, " +
+            "latitude, longitude, temp, humidity, pressure, wind_speed, aqi, description) VALUES(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_FORECAST_POINT = "INSERT OR REPLACE INTO forecast_points(location, forecast_at, " +
+            "issued_at, temp, temp_min, temp_max, condition, rain_chance) VALUES(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String SELECT_OBSERVATIONS = "SELECT * FROM observations " +
+            "WHERE location = ? AND observed_at BETWEEN ? AND ? ORDER BY observed_at";
+    private static final String SELECT_FORECAST_POINTS = "SELECT * FROM forecast_points " +
+            "WHERE location = ? AND forecast_at BETWEEN ? AND ? ORDER BY forecast_at";
+
+    private static final LatencyHistogram FLUSH_TIMER = Metrics.histogram("db.observations.flush");
+    private static final LatencyHistogram OBSERVATIONS_TIMER = Metrics.histogram("db.observations.query");
+    private static final LatencyHistogram FORECAST_POINTS_TIMER = Metrics.histogram("db.forecastPoints.query");
+
+    private static final ConcurrentLinkedQueue<WeatherData> pending = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private static volatile CompletableFuture<Void> lastFlush = CompletableFuture.completedFuture(null);
+
+    public static String locationKey(WeatherData data) {
+        return (data.getCity() + "," + data.getCountryCode()).toLowerCase(Locale.ROOT);
+    }
+
+    public static void record(WeatherData data) {
+        if (data == null || data.getObservedAt() == 0) return;
+        pending.add(data);
+        if (flushScheduled.compareAndSet(false, true)) {
+            lastFlush = DatabaseManager.connections().write(FLUSH_TIMER, ObservationStore::flush);
+            lastFlush.exceptionally(DatabaseManager::logFailure);
+        }
+    }
+
+    /** Completes once everything recorded before this call has been committed (or failed to). */
+    public static CompletableFuture<Void> whenFlushed() {
+        return lastFlush;
+    }
+
+    private static Void flush(DatabaseConnections.StatementCache statements) throws SQLException {
+        flushScheduled.set(false);
+        Connection conn = statements.getConnection();
+        conn.setAutoCommit(false);
+        try {
+            PreparedStatement observation = statements.prepare(INSERT_OBSERVATION);
+            PreparedStatement forecastPoint = statements.prepare(INSERT_FORECAST_POINT);
+            Map<String, Set<Long>> touchedDays = new HashMap<>();
+            WeatherData data;
+            while ((data = pending.poll()) != null) {
+                String location = locationKey(data);
+                Set<Long> days = touchedDays.computeIfAbsent(location, key -> new HashSet<>());
+                days.add(WeatherRollups.epochDay(data.getObservedAt()));
+                observation.setString(1, location);
+                observation.setLong(2, data.getObservedAt());
+                observation.setDouble(3, data.getLatitude());
+                observation.setDouble(4, data.getLongitude());
+                observation.setDouble(5, data.getTemp());
+                observation.setInt(6, data.getHumidity());
+                observation.setInt(7, data.getPressure());
+                observation.setDouble(8, data.getWindSpeed());
+                observation.setInt(9, data.getAqi());
+                observation.setString(10, data.getDescription());
+                observation.addBatch();
+
+                ForecastSeries forecast = data.getForecast();
+                for (int i = 0; i < forecast.size(); i++) {
+                    forecastPoint.setString(1, location);
+                    forecastPoint.setLong(2, forecast.getTime(i));
+                    forecastPoint.setLong(3, data.getObservedAt());
+                    forecastPoint.setDouble(4, forecast.getTemp(i));
+                    forecastPoint.setDouble(5, forecast.getTempMin(i));
+                    forecastPoint.setDouble(6, forecast.getTempMax(i));
+                    forecastPoint.setString(7, forecast.getCondition(i));
+                    forecastPoint.setInt(8, forecast.getRainChance(i));
+                    forecastPoint.addBatch();
+                    days.add(WeatherRollups.epochDay(forecast.getTime(i)));
+                }
+            }
+            observation.executeBatch();
+            forecastPoint.executeBatch();
+            for (Map.Entry<String, Set<Long>> entry : touchedDays.entrySet()) {
+                WeatherRollups.update(statements, entry.getKey(), entry.getValue());
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+        return null;
+    }
+
+    public static CompletableFuture<List<Observation>> getObservations(String location, long fromEpochSecond, long toEpochSecond) {
+        return DatabaseManager.connections().read(OBSERVATIONS_TIMER, statements -> {
+            PreparedStatement pstmt = statements.prepare(SELECT_OBSERVATIONS);
+            pstmt.setString(1, location);
+            pstmt.setLong(2, fromEpochSecond);
+            pstmt.setLong(3, toEpochSecond);
+            List<Observation> observations = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    observations.add(new Observation(
+                            rs.getString("location"),
+                            rs.getLong("observed_at"),
+                            rs.getDouble("latitude"),
+                            rs.getDouble("longitude"),
+                            rs.getDouble("temp"),
+                            rs.getInt("humidity"),
+                            rs.getInt("pressure"),
+                            rs.getDouble("wind_speed"),
+                            rs.getInt("aqi"),
+                            rs.getString("description")
+                    ));
+                }
+            }
+            return observations;
+        });
+    }
+
+    public static CompletableFuture<ForecastSeries> getForecastPoints(String location, long fromEpochSecond, long toEpochSecond) {
+        return DatabaseManager.connections().read(FORECAST_POINTS_TIMER, statements -> {
+            PreparedStatement pstmt = statements.prepare(SELECT_FORECAST_POINTS);
+            pstmt.setString(1, location);
+            pstmt.setLong(2, fromEpochSecond);
+            pstmt.setLong(3, toEpochSecond);
+            ForecastSeries.Builder builder = new ForecastSeries.Builder();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    builder.add(
+                            rs.getLong("forecast_at"),
+                            rs.getDouble("temp"),
+                            rs.getDouble("temp_min"),
+                            rs.getDouble("temp_max"),
+                            rs.getString("condition"),
+                            rs.getInt("rain_chance")
+                    );
+                }
+            }
+            return builder.build();
+        });
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.weatherapp;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Token bucket in front of the shared API key. Callers wait in a priority queue for a token:
+ * user requests go first, and background requests may only spend tokens above a reserve kept for
+ * the user. A caller that waits longer than its priority allows fails with
+ * {@link QuotaExceededException} so it can fall back to cached data.
+ */
+public class RequestQuota {
+    public enum Priority { USER, BACKGROUND }
+
+    public static class QuotaExceededException extends Exception {
+        public QuotaExceededException(Priority priority) {
+            super("API quota exhausted for " + priority.name().toLowerCase(Locale.ROOT) + " request");
+        }
+    }
+
+    private static final class Waiter {
+        final Priority priority;
+        final long sequence;
+        final long enqueuedAt = System.nanoTime();
+        final long deadline;
+        final CompletableFuture<Void> permit = new CompletableFuture<>();
+
+        Waiter(Priority priority, long sequence, long maxWaitNanos) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.deadline = enqueuedAt + maxWaitNanos;
+        }
+    }
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final double backgroundReserve;
+    private final long userMaxWaitNanos;
+    private final long backgroundMaxWaitNanos;
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+            Comparator.<Waiter, Priority>comparing(w -> w.priority).thenComparingLong(w -> w.sequence));
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "request-quota");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private double tokens;
+    private long lastRefill = System.nanoTime();
+    private long sequence;
+    private ScheduledFuture<?> nextDispatch;
+    private long nextDispatchAt;
+
+    private final LatencyHistogram userWait = Metrics.histogram("quota.wait.user");
+    private final LatencyHistogram backgroundWait = Metrics.histogram("quota.wait.background");
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public RequestQuota(int perMinute, double backgroundReserveFraction, long userMaxWaitMillis, long backgroundMaxWaitMillis) {
+        this.capacity = perMinute;
+        this.tokens = perMinute;
+        this.tokensPerNano = perMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.backgroundReserve = perMinute * backgroundReserveFraction;
+        this.userMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(userMaxWaitMillis);
+        this.backgroundMaxWaitNanos = TimeUnit.MILLISECONDS.toNanos(backgroundMaxWaitMillis);
+    }
+
+    /** Completes when a token is granted; cancelling the returned future gives up the place in line. */
+    public CompletableFuture<Void> acquire(Priority priority) {
+        Waiter waiter;
+        synchronized (this) {
+            waiter = new Waiter(priority, sequence++, priority == Priority.USER ? userMaxWaitNanos : backgroundMaxWaitNanos);
+            queue.add(waiter);
+        }
+        waiter.permit.whenComplete((v, e) -> {
+            if (waiter.permit.isCancelled()) {
+                synchronized (this) {
+                    queue.remove(waiter);
+                }
+            }
+        });
+        dispatch();
+        return waiter.permit;
+    }
+
+    private void dispatch() {
+        List<Waiter> grants = new ArrayList<>();
+        List<Waiter> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            // A wake-up that is due is the one running now; forget it so the next one gets scheduled.
+            if (nextDispatch != null && nextDispatchAt - now <= 0) nextDispatch = null;
+
+            Waiter head;
+            while ((head = queue.peek()) != null && tokens - 1 >= floorFor(head.priority)) {
+                queue.poll();
+                if (head.permit.isDone()) continue;
+                tokens -= 1;
+                grants.add(head);
+            }
+            long earliestDeadline = Long.MAX_VALUE;
+            for (Iterator<Waiter> it = queue.iterator(); it.hasNext(); ) {
+                Waiter waiter = it.next();
+                if (now - waiter.deadline >= 0) {
+                    it.remove();
+                    expired.add(waiter);
+                } else if (waiter.deadline < earliestDeadline) {
+                    earliestDeadline = waiter.deadline;
+                }
+            }
+            if ((head = queue.peek()) != null) {
+                long untilToken = (long) Math.ceil((floorFor(head.priority) + 1 - tokens) / tokensPerNano);
+                scheduleDispatch(now, Math.max(0, Math.min(untilToken, earliestDeadline - now)));
+            }
+        }
+        for (Waiter waiter : grants) {
+            (waiter.priority == Priority.USER ? userWait : backgroundWait).recordSince(waiter.enqueuedAt);
+            granted.increment();
+            waiter.permit.complete(null);
+        }
+        for (Waiter waiter : expired) {
+            exhausted.increment();
+            waiter.permit.completeExceptionally(new QuotaExceededException(waiter.priority));
+        }
+    }
+
+    private double floorFor(Priority priority) {
+        return priority == Priority.USER ? 0 : backgroundReserve;
+    }
+
+    // Called with the lock held; keeps a single pending wake-up at the earliest time anyone needs one.
+    private void scheduleDispatch(long now, long delayNanos) {
+        long at = now + delayNanos;
+        if (nextDispatch != null && !nextDispatch.isDone() && nextDispatchAt - at <= 0) return;
+        if (nextDispatch != null) nextDispatch.cancel(false);
+        nextDispatchAt = at;
+        nextDispatch = timer.schedule(this::dispatch, Math.max(1, delayNanos), TimeUnit.NANOSECONDS);
+    }
+
+    public synchronized double getAvailableTokens() {
+        return Math.min(capacity, tokens + (System.nanoTime() - lastRefill) * tokensPerNano);
+    }
+
+    public synchronized int getQueueDepth() { return queue.size(); }
+    public long getGranted() { return granted.sum(); }
+    public long getExhausted() { return exhausted.sum(); }
+}
@@ -0,0 +1,139 @@
+package com.example.weatherapp;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class ResponseCache<V> {
+    private static final double GRID_STEP = 0.01;
+
+    private final int maxEntries;
+    private final Map<String, Duration> ttlByEndpoint;
+    private final Duration defaultTtl;
+    private final LinkedHashMap<String, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private record Entry<V>(V value, long expiresAtNanos) {}
+
+    public ResponseCache(int maxEntries, Map<String, Duration> ttlByEndpoint, Duration defaultTtl) {
+        this.maxEntries = maxEntries;
+        this.ttlByEndpoint = Map.copyOf(ttlByEndpoint);
+        this.defaultTtl = defaultTtl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                if (size() > ResponseCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public V get(String url) {
+        String key = keyFor(url);
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAtNanos() - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the cached value even if it has expired. Expired entries stay until they are replaced
+     * or evicted, so there is something to fall back on when the network can't be used.
+     */
+    public V getStale(String url) {
+        String key = keyFor(url);
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            return entry == null ? null : entry.value();
+        }
+    }
+
+    public void put(String url, V value) {
+        String key = keyFor(url);
+        long expiresAt = System.nanoTime() + ttlByEndpoint.getOrDefault(endpointOf(key), defaultTtl).toNanos();
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Builds a key from the last path segment and the sorted query, dropping the API key,
+     * lower-casing city names and snapping coordinates to a ~1 km grid.
+     */
+    static String keyFor(String url) {
+        URI uri = URI.create(url);
+        String path = uri.getPath() == null ? "" : uri.getPath();
+        String endpoint = path.substring(path.lastIndexOf('/') + 1);
+
+        Map<String, String> params = new TreeMap<>();
+        String query = uri.getRawQuery();
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int eq = pair.indexOf('=');
+                String name = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                switch (name) {
+                    case "appid" -> { }
+                    case "q" -> params.put(name, URLDecoder.decode(value, StandardCharsets.UTF_8).trim().toLowerCase(Locale.ROOT));
+                    case "lat", "lon" -> params.put(name, snapToGrid(value));
+                    default -> params.put(name, value);
+                }
+            }
+        }
+        StringBuilder key = new StringBuilder(endpoint).append('?');
+        params.forEach((name, value) -> key.append(name).append('=').append(value).append('&'));
+        return key.toString();
+    }
+
+    private static String endpointOf(String key) {
+        return key.substring(0, key.indexOf('?'));
+    }
+
+    private static String snapToGrid(String coordinate) {
+        try {
+            double snapped = Math.round(Double.parseDouble(coordinate) / GRID_STEP) * GRID_STEP;
+            return String.format(Locale.ROOT, "%.2f", snapped);
+        } catch (NumberFormatException e) {
+            return coordinate;
+        }
+    }
+}
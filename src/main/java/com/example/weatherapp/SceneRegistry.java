@@ -0,0 +1,77 @@
+package com.example.weatherapp;
+
+import javafx.application.Platform;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Loads each FXML view once and keeps its root and controller for the life of the app. Navigation
+ * swaps the cached root into the scene; controllers re-render only when the weather data changed
+ * since they last drew it. All methods must be called on the FX thread.
+ */
+public class SceneRegistry {
+    public static final String CURRENT = "hello-view.fxml";
+    public static final List<String> VIEWS = List.of(CURRENT, "hourly-view.fxml", "details-view.fxml",
+            "monthly-view.fxml", "trends-view.fxml", "maps-view.fxml", "cities-view.fxml");
+
+    private record View(Parent root, HelloController controller) {}
+
+    private static final Map<String, View> views = new HashMap<>();
+    private static String visible;
+
+    public static Parent getRoot(String fxmlFile) {
+        return view(fxmlFile).root();
+    }
+
+    public static void show(Scene scene, String fxmlFile) {
+        View view = view(fxmlFile);
+        visible = fxmlFile;
+        if (scene.getRoot() != view.root()) {
+            scene.setRoot(view.root());
+        }
+        view.controller().refreshIfStale();
+    }
+
+    /** Tells the visible view to pick up new data; hidden views catch up when they are shown. */
+    public static void dataChanged() {
+        View view = visible == null ? null : views.get(visible);
+        if (view != null) view.controller().refreshIfStale();
+    }
+
+    /** Loads the remaining views one per pulse after startup so the first navigation to each is instant. */
+    public static void warmUp() {
+        Deque<String> pending = new ArrayDeque<>(VIEWS);
+        Platform.runLater(() -> warmNext(pending));
+    }
+
+    private static void warmNext(Deque<String> pending) {
+        String next = pending.poll();
+        if (next == null) return;
+        view(next);
+        Platform.runLater(() -> warmNext(pending));
+    }
+
+    private static View view(String fxmlFile) {
+        View view = views.get(fxmlFile);
+        if (view == null) {
+            try {
+                FXMLLoader loader = new FXMLLoader(SceneRegistry.class.getResource(fxmlFile));
+                Parent root = loader.load();
+                view = new View(root, loader.getController());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            views.put(fxmlFile, view);
+        }
+        return view;
+    }
+}
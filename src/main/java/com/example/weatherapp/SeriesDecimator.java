@@ -0,0 +1,93 @@
+package com.example.weatherapp;
+
+/**
+ * A time series held in primitive arrays that can be thinned to a point budget with
+ * largest-triangle-three-buckets: the first and last points are kept, and from each bucket in
+ * between, the point spanning the largest triangle with its neighbours, so peaks and dips survive.
+ * The last selection is remembered, so redrawing at an unchanged budget costs nothing.
+ */
+public final class SeriesDecimator {
+    private final long[] times;
+    private final double[] values;
+    private final int size;
+    private final double min;
+    private final double max;
+    private int cachedThreshold = -1;
+    private int[] cachedIndices;
+
+    /** Wraps the first {@code size} entries; the arrays are read, never copied or modified. */
+    public SeriesDecimator(long[] times, double[] values, int size) {
+        this.times = times;
+        this.values = values;
+        this.size = size;
+        double lo = Double.POSITIVE_INFINITY, hi = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < size; i++) {
+            lo = Math.min(lo, values[i]);
+            hi = Math.max(hi, values[i]);
+        }
+        this.min = lo;
+        this.max = hi;
+    }
+
+    public int size() { return size; }
+    public long getTime(int i) { return times[i]; }
+    public double getValue(int i) { return values[i]; }
+    public boolean isEmpty() { return size == 0; }
+
+    /** Extremes of the full series, not of a decimated view. */
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+
+    /** Indices of at most {@code threshold} points to draw, in order. */
+    public synchronized int[] indices(int threshold) {
+        if (threshold != cachedThreshold) {
+            cachedIndices = largestTriangleThreeBuckets(Math.max(3, threshold));
+            cachedThreshold = threshold;
+        }
+        return cachedIndices;
+    }
+
+    private int[] largestTriangleThreeBuckets(int threshold) {
+        if (size <= threshold) {
+            int[] all = new int[size];
+            for (int i = 0; i < size; i++) all[i] = i;
+            return all;
+        }
+        int[] sampled = new int[threshold];
+        // x relative to the first point keeps the doubles exact for epoch seconds.
+        long origin = times[0];
+        double every = (double) (size - 2) / (threshold - 2);
+        int a = 0;
+        int count = 0;
+        sampled[count++] = 0;
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int nextStart = (int) Math.floor((bucket + 1) * every) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * every) + 1, size);
+            double avgX = 0, avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += times[i] - origin;
+                avgY += values[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            avgX /= nextLength;
+            avgY /= nextLength;
+
+            int from = (int) Math.floor(bucket * every) + 1;
+            int to = (int) Math.floor((bucket + 1) * every) + 1;
+            double ax = times[a] - origin, ay = values[a];
+            double maxArea = -1;
+            int chosen = from;
+            for (int i = from; i < to; i++) {
+                double area = Math.abs((ax - avgX) * (values[i] - ay) - (ax - (times[i] - origin)) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            sampled[count++] = chosen;
+            a = chosen;
+        }
+        sampled[count] = size - 1;
+        return sampled;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.weatherapp;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls for the same key into one in-flight future. Every caller gets its own
+ * future: results and errors reach all of them, while cancelling one caller only detaches it. The
+ * shared call is cancelled once every caller has cancelled.
+ */
+public class SingleFlight<K, V> {
+    private static final class Flight<V> {
+        final CompletableFuture<V> shared = new CompletableFuture<>();
+        final AtomicInteger waiters = new AtomicInteger();
+
+        boolean tryJoin() {
+            while (true) {
+                int current = waiters.get();
+                if (current == 0) return false;
+                if (waiters.compareAndSet(current, current + 1)) return true;
+            }
+        }
+    }
+
+    private final Map<K, Flight<V>> inflight = new ConcurrentHashMap<>();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder absorbed = new LongAdder();
+
+    public CompletableFuture<V> run(K key, Supplier<CompletableFuture<V>> call) {
+        Flight<V> created = new Flight<>();
+        created.waiters.set(1);
+        Flight<V> flight = inflight.compute(key, (k, existing) ->
+                existing != null && !existing.shared.isDone() && existing.tryJoin() ? existing : created);
+
+        if (flight == created) {
+            started.increment();
+            CompletableFuture<V> upstream;
+            try {
+                upstream = call.get();
+            } catch (RuntimeException e) {
+                upstream = CompletableFuture.failedFuture(e);
+            }
+            CompletableFuture<V> source = upstream;
+            source.whenComplete((value, e) -> {
+                inflight.remove(key, created);
+                if (e == null) created.shared.complete(value);
+                else created.shared.completeExceptionally(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+            });
+            created.shared.whenComplete((value, e) -> {
+                if (created.shared.isCancelled()) {
+                    inflight.remove(key, created);
+                    source.cancel(true);
+                }
+            });
+        } else {
+            absorbed.increment();
+        }
+        return attach(flight);
+    }
+
+    private CompletableFuture<V> attach(Flight<V> flight) {
+        CompletableFuture<V> waiter = new CompletableFuture<>();
+        flight.shared.whenComplete((value, e) -> {
+            if (e == null) waiter.complete(value);
+            else waiter.completeExceptionally(e);
+        });
+        waiter.whenComplete((value, e) -> {
+            if (waiter.isCancelled() && !flight.shared.isDone() && flight.waiters.decrementAndGet() == 0) {
+                flight.shared.cancel(true);
+            }
+        });
+        return waiter;
+    }
+
+    public int getInFlight() { return inflight.size(); }
+    public long getStarted() { return started.sum(); }
+    public long getAbsorbed() { return absorbed.sum(); }
+}
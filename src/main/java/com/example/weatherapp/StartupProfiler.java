@@ -0,0 +1,72 @@
+package com.example.weatherapp;
+
+import javafx.scene.Scene;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long after JVM start each startup phase was reached. Each phase is published as a
+ * {@code startup.<phase>_ms} metric; with {@code -Dweatherapp.startup.log=true} the whole timeline
+ * is also logged once the first weather data has been laid out on screen. Phases are marked on the
+ * FX thread.
+ */
+public class StartupProfiler {
+    public static final String APP_START = "app.start";
+    public static final String FXML_LOADED = "fxml.loaded";
+    public static final String STAGE_SHOWN = "stage.shown";
+    public static final String FIRST_DATA = "first.data";
+    public static final String FIRST_PAINT = "first.paint";
+
+    private static final boolean LOG_TIMELINE = Boolean.getBoolean("weatherapp.startup.log");
+    private static final System.Logger LOG = System.getLogger(StartupProfiler.class.getName());
+
+    private static final long jvmStartMillis = ProcessHandle.current().info().startInstant()
+            .map(Instant::toEpochMilli).orElse(System.currentTimeMillis());
+    private static final Map<String, Long> phases = new LinkedHashMap<>();
+    private static String firstDataSource;
+    private static boolean reported;
+
+    public static synchronized void mark(String phase) {
+        if (phases.containsKey(phase)) return;
+        long millis = System.currentTimeMillis() - jvmStartMillis;
+        phases.put(phase, millis);
+        Metrics.gauge("startup." + phase + "_ms", () -> millis);
+    }
+
+    public static synchronized void firstData(String source) {
+        if (phases.containsKey(FIRST_DATA)) return;
+        firstDataSource = source;
+        mark(FIRST_DATA);
+    }
+
+    /** Marks the first pulse laid out after the first data arrived and then reports the timeline. */
+    public static void watchFirstPaint(Scene scene) {
+        Runnable[] listener = new Runnable[1];
+        listener[0] = () -> {
+            synchronized (StartupProfiler.class) {
+                if (!phases.containsKey(FIRST_DATA)) return;
+                mark(FIRST_PAINT);
+            }
+            scene.removePostLayoutPulseListener(listener[0]);
+            report();
+        };
+        scene.addPostLayoutPulseListener(listener[0]);
+    }
+
+    public static synchronized Map<String, Long> getPhases() {
+        return new LinkedHashMap<>(phases);
+    }
+
+    private static synchronized void report() {
+        if (reported) return;
+        reported = true;
+        Metrics.gauge("startup.firstDataFromSnapshot", () -> "snapshot".equals(firstDataSource) ? 1 : 0);
+        if (!LOG_TIMELINE) return;
+        StringBuilder line = new StringBuilder("Startup (ms since JVM start):");
+        phases.forEach((phase, millis) -> line.append(' ').append(phase).append('=').append(millis));
+        line.append(" first data from ").append(firstDataSource);
+        LOG.log(System.Logger.Level.INFO, line.toString());
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.weatherapp;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded on-disk LRU of map tiles, filled on demand from the upstream tile server. Access
+ * order is kept in memory and mirrored into file modification times so it survives restarts.
+ * Concurrent requests for the same missing tile share one download, which is bounded by the
+ * given timeout.
+ *
+ * <p>The index of what is already on disk is built on a background thread; until it is ready,
+ * tiles are looked up on disk directly, so construction never waits for the directory scan.
+ */
+public class TileCache {
+    private static final System.Logger LOG = System.getLogger(TileCache.class.getName());
+
+    private final Path dir;
+    private final long maxBytes;
+    private final String upstreamTemplate;
+    private final HttpClient client;
+    private final Duration timeout;
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, CompletableFuture<byte[]>> inflight = new ConcurrentHashMap<>();
+    private final CompletableFuture<Void> indexed = new CompletableFuture<>();
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TileCache(Path dir, long maxBytes, String upstreamTemplate, HttpClient client, Duration timeout) throws IOException {
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.upstreamTemplate = upstreamTemplate;
+        this.client = client;
+        this.timeout = timeout;
+        Files.createDirectories(dir);
+        Thread.ofPlatform().daemon().name("tile-index").start(this::loadIndex);
+    }
+
+    private void loadIndex() {
+        LinkedHashMap<String, Long> scanned = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.filter(path -> path.toString().endsWith(".png"))
+                    .sorted(Comparator.comparing(TileCache::lastModified))
+                    .forEach(path -> scanned.put(dir.relativize(path).toString().replace('\\', '/'), path.toFile().length()));
+        } catch (IOException | UncheckedIOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Couldn't index tile cache " + dir, e);
+        }
+        synchronized (index) {
+            // Tiles touched while the scan ran are the most recently used, so they go in last.
+            Map<String, Long> touched = new LinkedHashMap<>(index);
+            index.clear();
+            totalBytes = 0;
+            for (Map.Entry<String, Long> entry : scanned.entrySet()) put(entry.getKey(), entry.getValue());
+            for (Map.Entry<String, Long> entry : touched.entrySet()) put(entry.getKey(), entry.getValue());
+        }
+        evictIfNeeded();
+        indexed.complete(null);
+    }
+
+    // Callers hold the index lock.
+    private void put(String key, long size) {
+        Long previous = index.put(key, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+    }
+
+    public CompletableFuture<byte[]> get(int z, int x, int y) {
+        String key = z + "/" + x + "/" + y + ".png";
+        byte[] local = readLocal(key);
+        if (local != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(local);
+        }
+        misses.increment();
+
+        CompletableFuture<byte[]> download = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inflight.putIfAbsent(key, download);
+        if (existing != null) return existing;
+
+        String url = upstreamTemplate.replace("{z}", String.valueOf(z))
+                .replace("{x}", String.valueOf(x))
+                .replace("{y}", String.valueOf(y));
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("User-Agent", "SkyCast/1.0 (desktop weather app)")
+                .timeout(timeout)
+                .build();
+        // The request timeout only covers the headers; orTimeout also bounds a body that stalls.
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((response, e) -> {
+                    inflight.remove(key, download);
+                    if (e != null) {
+                        download.completeExceptionally(e);
+                    } else if (response.statusCode() != 200) {
+                        download.completeExceptionally(new IOException("Tile server returned " + response.statusCode() + " for " + key));
+                    } else {
+                        store(key, response.body());
+                        download.complete(response.body());
+                    }
+                });
+        return download;
+    }
+
+    public boolean contains(int z, int x, int y) {
+        String key = z + "/" + x + "/" + y + ".png";
+        synchronized (index) {
+            if (index.containsKey(key)) return true;
+        }
+        return !indexed.isDone() && Files.isRegularFile(dir.resolve(key));
+    }
+
+    private byte[] readLocal(String key) {
+        synchronized (index) {
+            // Before the scan finishes a tile may be on disk without being indexed yet.
+            if (index.get(key) == null && indexed.isDone()) return null;
+        }
+        Path file = dir.resolve(key);
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            synchronized (index) {
+                put(key, bytes.length);
+            }
+            return bytes;
+        } catch (IOException e) {
+            synchronized (index) {
+                Long size = index.remove(key);
+                if (size != null) totalBytes -= size;
+            }
+            return null;
+        }
+    }
+
+    private void store(String key, byte[] bytes) {
+        Path file = dir.resolve(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), "tile", ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(System.Logger.Level.WARNING, "Couldn't store tile " + key, e);
+            return;
+        }
+        synchronized (index) {
+            put(key, bytes.length);
+        }
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        while (true) {
+            String eldest;
+            synchronized (index) {
+                if (totalBytes <= maxBytes || index.isEmpty()) return;
+                Map.Entry<String, Long> entry = index.entrySet().iterator().next();
+                eldest = entry.getKey();
+                totalBytes -= entry.getValue();
+                index.remove(eldest);
+            }
+            evictions.increment();
+            try {
+                Files.deleteIfExists(dir.resolve(eldest));
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.WARNING, "Couldn't evict tile " + eldest, e);
+            }
+        }
+    }
+
+    public long getTotalBytes() {
+        synchronized (index) {
+            return totalBytes;
+        }
+    }
+
+    public long getHits() { return hits.sum(); }
+    public long getMisses() { return misses.sum(); }
+    public long getEvictions() { return evictions.sum(); }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.weatherapp;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bytes moved by one kind of HTTP response: what arrived on the wire and what the decoder
+ * consumed after decompression. The two are equal for uncompressed responses.
+ */
+public final class TransferCounter {
+    private final LongAdder responses = new LongAdder();
+    private final LongAdder compressed = new LongAdder();
+    private final LongAdder wireBytes = new LongAdder();
+    private final LongAdder decodedBytes = new LongAdder();
+
+    public void record(long wire, long decoded, boolean wasCompressed) {
+        responses.increment();
+        if (wasCompressed) compressed.increment();
+        wireBytes.add(wire);
+        decodedBytes.add(decoded);
+    }
+
+    public long getResponses() { return responses.sum(); }
+    public long getCompressed() { return compressed.sum(); }
+    public long getWireBytes() { return wireBytes.sum(); }
+    public long getDecodedBytes() { return decodedBytes.sum(); }
+
+    /** Decoded bytes per wire byte; 1 when nothing was compressed or nothing was recorded. */
+    public double getCompressionRatio() {
+        long wire = wireBytes.sum();
+        return wire == 0 ? 1 : decodedBytes.sum() / (double) wire;
+    }
+}
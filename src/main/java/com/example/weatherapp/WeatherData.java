@@ -15,7 +15,10 @@ public class WeatherData {
     private double longitude;
     private String sunrise;
     private String sunset;
+    private long observedAt;
+    private boolean stale;
     private List<HourlyPoint> hourlyForecast;
+    private ForecastSeries forecast = ForecastSeries.EMPTY;
 
     public record HourlyPoint(String time, double temp, String condition, int rainChance) {}
 
@@ -49,6 +52,10 @@ public class WeatherData {
     public double getLongitude() { return longitude; }
     public String getSunrise() { return sunrise; }
     public String getSunset() { return sunset; }
+    public long getObservedAt() { return observedAt; }
+    public void setObservedAt(long observedAt) { this.observedAt = observedAt; }
+    public boolean isStale() { return stale; }
+    public void setStale(boolean stale) { this.stale = stale; }
 
     // Dashboard specific mocks/methods for UI parity
     public int getUvIndex() { return 4; }
@@ -63,6 +70,12 @@ public class WeatherData {
     public List<HourlyPoint> getHourlyForecast() { return hourlyForecast; }
     public void setHourlyForecast(List<HourlyPoint> hourlyForecast) { this.hourlyForecast = hourlyForecast; }
 
+    public ForecastSeries getForecast() { return forecast; }
+    public void setForecast(ForecastSeries forecast) {
+        this.forecast = forecast;
+        this.hourlyForecast = forecast.hourly(8);
+    }
+
     public String getAqiText() {
         return switch (aqi) {
             case 1 -> "Good";
@@ -0,0 +1,219 @@
+package com.example.weatherapp;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Streaming decoders for the OpenWeatherMap and geolocation payloads. Each one walks the token
+ * stream straight off the response body and keeps only the fields the app uses, skipping
+ * everything else without building a tree or buffering the body as a string.
+ */
+public class WeatherParser {
+    private static final JsonFactory factory = new JsonFactory();
+
+    public record Current(String city, String countryCode, double temp, String description, int humidity,
+                          double windSpeed, int pressure, double latitude, double longitude,
+                          long sunrise, long sunset, long observedAt) {}
+
+    @FunctionalInterface
+    private interface FieldHandler {
+        void field(String name, JsonParser parser) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ElementHandler {
+        void element(int index, JsonParser parser) throws IOException;
+    }
+
+    private static final class CurrentFields {
+        String city = "", countryCode = "", description = "";
+        double temp, windSpeed, latitude, longitude;
+        int humidity, pressure;
+        long sunrise, sunset, observedAt;
+    }
+
+    // Reused across list items, so every field is reset before each one is read.
+    private static final class ForecastEntry {
+        long time;
+        double temp, tempMin, tempMax;
+        String condition = "";
+        int rainChance;
+
+        void reset() {
+            time = 0;
+            temp = tempMin = tempMax = Double.NaN;
+            condition = "";
+            rainChance = 0;
+        }
+    }
+
+    public static Current parseCurrent(InputStream in) throws IOException {
+        CurrentFields f = new CurrentFields();
+        try (JsonParser parser = factory.createParser(in)) {
+            parser.nextToken();
+            readObject(parser, (name, p) -> {
+                switch (name) {
+                    case "coord" -> readObject(p, (n, q) -> {
+                        switch (n) {
+                            case "lat" -> f.latitude = q.getValueAsDouble();
+                            case "lon" -> f.longitude = q.getValueAsDouble();
+                            default -> q.skipChildren();
+                        }
+                    });
+                    case "weather" -> readArray(p, (i, q) -> {
+                        if (i == 0) {
+                            readObject(q, (n, r) -> {
+                                if (n.equals("description")) f.description = r.getValueAsString("");
+                                else r.skipChildren();
+                            });
+                        } else {
+                            q.skipChildren();
+                        }
+                    });
+                    case "main" -> readObject(p, (n, q) -> {
+                        switch (n) {
+                            case "temp" -> f.temp = q.getValueAsDouble();
+                            case "humidity" -> f.humidity = q.getValueAsInt();
+                            case "pressure" -> f.pressure = q.getValueAsInt();
+                            default -> q.skipChildren();
+                        }
+                    });
+                    case "wind" -> readObject(p, (n, q) -> {
+                        if (n.equals("speed")) f.windSpeed = q.getValueAsDouble();
+                        else q.skipChildren();
+                    });
+                    case "sys" -> readObject(p, (n, q) -> {
+                        switch (n) {
+                            case "country" -> f.countryCode = q.getValueAsString("");
+                            case "sunrise" -> f.sunrise = q.getValueAsLong();
+                            case "sunset" -> f.sunset = q.getValueAsLong();
+                            default -> q.skipChildren();
+                        }
+                    });
+                    case "name" -> f.city = p.getValueAsString("");
+                    case "dt" -> f.observedAt = p.getValueAsLong();
+                    default -> p.skipChildren();
+                }
+            });
+        }
+        return new Current(f.city, f.countryCode, f.temp, f.description, f.humidity, f.windSpeed, f.pressure,
+                f.latitude, f.longitude, f.sunrise, f.sunset, f.observedAt);
+    }
+
+    public static int parseAqi(InputStream in) throws IOException {
+        int[] aqi = new int[1];
+        try (JsonParser parser = factory.createParser(in)) {
+            parser.nextToken();
+            readObject(parser, (name, p) -> {
+                if (!name.equals("list")) {
+                    p.skipChildren();
+                    return;
+                }
+                readArray(p, (i, q) -> {
+                    if (i != 0) {
+                        q.skipChildren();
+                        return;
+                    }
+                    readObject(q, (n, r) -> {
+                        if (!n.equals("main")) {
+                            r.skipChildren();
+                            return;
+                        }
+                        readObject(r, (m, s) -> {
+                            if (m.equals("aqi")) aqi[0] = s.getValueAsInt();
+                            else s.skipChildren();
+                        });
+                    });
+                });
+            });
+        }
+        return aqi[0];
+    }
+
+    public static ForecastSeries parseForecast(InputStream in) throws IOException {
+        ForecastSeries.Builder builder = new ForecastSeries.Builder();
+        ForecastEntry entry = new ForecastEntry();
+        try (JsonParser parser = factory.createParser(in)) {
+            parser.nextToken();
+            readObject(parser, (name, p) -> {
+                if (!name.equals("list")) {
+                    p.skipChildren();
+                    return;
+                }
+                readArray(p, (i, q) -> {
+                    entry.reset();
+                    readObject(q, (n, r) -> {
+                        switch (n) {
+                            case "dt" -> entry.time = r.getValueAsLong();
+                            case "pop" -> entry.rainChance = (int) (r.getValueAsDouble() * 100);
+                            case "main" -> readObject(r, (m, s) -> {
+                                switch (m) {
+                                    case "temp" -> entry.temp = s.getValueAsDouble();
+                                    case "temp_min" -> entry.tempMin = s.getValueAsDouble();
+                                    case "temp_max" -> entry.tempMax = s.getValueAsDouble();
+                                    default -> s.skipChildren();
+                                }
+                            });
+                            case "weather" -> readArray(r, (j, s) -> {
+                                if (j == 0) {
+                                    readObject(s, (m, t) -> {
+                                        if (m.equals("main")) entry.condition = t.getValueAsString("");
+                                        else t.skipChildren();
+                                    });
+                                } else {
+                                    s.skipChildren();
+                                }
+                            });
+                            default -> r.skipChildren();
+                        }
+                    });
+                    // A slot without a time or a temperature can't be placed or charted; a missing range is just the temperature.
+                    if (entry.time <= 0 || Double.isNaN(entry.temp)) return;
+                    builder.add(entry.time, entry.temp, Double.isNaN(entry.tempMin) ? entry.temp : entry.tempMin,
+                            Double.isNaN(entry.tempMax) ? entry.temp : entry.tempMax, entry.condition, entry.rainChance);
+                });
+            });
+        }
+        return builder.build();
+    }
+
+    public static String parseCity(InputStream in) throws IOException {
+        String[] city = {""};
+        try (JsonParser parser = factory.createParser(in)) {
+            parser.nextToken();
+            readObject(parser, (name, p) -> {
+                if (name.equals("city")) city[0] = p.getValueAsString("");
+                else p.skipChildren();
+            });
+        }
+        return city[0];
+    }
+
+    private static void readObject(JsonParser parser, FieldHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            handler.field(name, parser);
+        }
+    }
+
+    private static void readArray(JsonParser parser, ElementHandler handler) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        int index = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            handler.element(index++, parser);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.weatherapp;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Headless mode: serves the same fetch, cache and coalescing pipeline as the desktop app as JSON
+ * over HTTP, one virtual thread per request. Requests beyond the concurrency limit wait briefly
+ * for a slot and are then turned away with 503.
+ *
+ * <pre>
+ * GET /weather?city=Khulna      current conditions, AQI and forecast
+ * GET /current?lat=22.8&amp;lon=89.55
+ * GET /aqi?city=...
+ * GET /forecast?city=...
+ * GET /health
+ * </pre>
+ */
+public class WeatherProxyServer {
+    private static final String HOST = System.getProperty("weatherapp.server.host", "127.0.0.1");
+    private static final int PORT = Integer.getInteger("weatherapp.server.port", 8085);
+    private static final int MAX_CONCURRENT = Integer.getInteger("weatherapp.server.maxConcurrent", 256);
+    private static final long SLOT_WAIT_MILLIS = Long.getLong("weatherapp.server.slotWaitMillis", 200);
+    private static final long REQUEST_TIMEOUT_SECONDS = Long.getLong("weatherapp.server.timeoutSeconds", 15);
+    private static final JsonFactory json = new JsonFactory();
+
+    private enum View { ALL, CURRENT, AQI, FORECAST }
+
+    private static final LatencyHistogram REQUEST_LATENCY = Metrics.histogram("server.request");
+    private static final System.Logger LOG = System.getLogger(WeatherProxyServer.class.getName());
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore slots = new Semaphore(MAX_CONCURRENT);
+
+    public WeatherProxyServer(String host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.setExecutor(executor);
+        server.createContext("/weather", exchange -> handle(exchange, View.ALL));
+        server.createContext("/current", exchange -> handle(exchange, View.CURRENT));
+        server.createContext("/aqi", exchange -> handle(exchange, View.AQI));
+        server.createContext("/forecast", exchange -> handle(exchange, View.FORECAST));
+        server.createContext("/health", exchange -> send(exchange, 200, "{\"status\":\"ok\"}".getBytes(StandardCharsets.UTF_8)));
+        Metrics.gauge("server.inFlight", () -> MAX_CONCURRENT - slots.availablePermits());
+    }
+
+    public static void main(String[] args) throws IOException {
+        WeatherProxyServer proxy = new WeatherProxyServer(HOST, PORT);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            proxy.stop();
+            DatabaseManager.shutdown();
+        }));
+        Metrics.start();
+        proxy.start();
+        LOG.log(System.Logger.Level.INFO, "Weather proxy listening on http://" + HOST + ":" + proxy.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange, View view) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Only GET is supported");
+                return;
+            }
+            if (!slots.tryAcquire(SLOT_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                sendError(exchange, 503, "Server busy");
+                return;
+            }
+            try {
+                serve(exchange, view);
+            } finally {
+                slots.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Interrupted");
+        } finally {
+            REQUEST_LATENCY.recordSince(start);
+        }
+    }
+
+    private void serve(HttpExchange exchange, View view) throws IOException, InterruptedException {
+        CompletableFuture<WeatherData> request;
+        try {
+            Map<String, String> params = queryParams(exchange.getRequestURI().getRawQuery());
+            if (params.containsKey("city")) {
+                request = ApiService.fetchWeatherAsync(params.get("city"));
+            } else if (params.containsKey("lat") && params.containsKey("lon")) {
+                double lat = Double.parseDouble(params.get("lat"));
+                double lon = Double.parseDouble(params.get("lon"));
+                if (!(Math.abs(lat) <= 90) || !(Math.abs(lon) <= 180)) {
+                    sendError(exchange, 400, "lat must be within [-90, 90] and lon within [-180, 180]");
+                    return;
+                }
+                request = ApiService.fetchWeatherByCoordsAsync(lat, lon);
+            } else {
+                sendError(exchange, 400, "Pass either city or lat and lon");
+                return;
+            }
+        } catch (NumberFormatException e) {
+            sendError(exchange, 400, "lat and lon must be numbers");
+            return;
+        } catch (IllegalArgumentException e) {
+            // URLDecoder rejects malformed escapes such as %zz.
+            sendError(exchange, 400, "Malformed query string");
+            return;
+        }
+
+        WeatherData data;
+        try {
+            data = request.get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            request.cancel(true);
+            sendError(exchange, 504, "Upstream timed out");
+            return;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof ApiException api && (api.getKind() == ApiException.Kind.CIRCUIT_OPEN
+                    || api.getKind() == ApiException.Kind.QUOTA_EXHAUSTED)) {
+                exchange.getResponseHeaders().set("Retry-After", "30");
+            }
+            sendError(exchange, statusFor(cause), cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+            return;
+        } catch (InterruptedException e) {
+            request.cancel(true);
+            throw e;
+        }
+        send(exchange, 200, toJson(data, view));
+    }
+
+    private static int statusFor(Throwable cause) {
+        if (!(cause instanceof ApiException api)) return 502;
+        return switch (api.getKind()) {
+            case TIMEOUT -> 504;
+            case CIRCUIT_OPEN, QUOTA_EXHAUSTED -> 503;
+            case HTTP_STATUS -> api.getStatusCode() == 404 ? 404 : 502;
+            case TRANSPORT, DECODE -> 502;
+        };
+    }
+
+    private static byte[] toJson(WeatherData data, View view) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(view == View.CURRENT || view == View.AQI ? 512 : 4096);
+        try (JsonGenerator gen = json.createGenerator(bytes, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeStringField("city", data.getCity());
+            gen.writeStringField("country", data.getCountryCode());
+            gen.writeNumberField("latitude", data.getLatitude());
+            gen.writeNumberField("longitude", data.getLongitude());
+            gen.writeNumberField("observedAt", data.getObservedAt());
+            if (view == View.ALL || view == View.CURRENT) {
+                gen.writeNumberField("temp", data.getTemp());
+                gen.writeStringField("description", data.getDescription());
+                gen.writeNumberField("humidity", data.getHumidity());
+                gen.writeNumberField("windSpeed", data.getWindSpeed());
+                gen.writeNumberField("pressure", data.getPressure());
+                gen.writeStringField("sunrise", data.getSunrise());
+                gen.writeStringField("sunset", data.getSunset());
+            }
+            if (view == View.ALL || view == View.AQI) {
+                gen.writeNumberField("aqi", data.getAqi());
+                gen.writeStringField("aqiText", data.getAqiText());
+            }
+            if (view == View.ALL || view == View.FORECAST) {
+                ForecastSeries forecast = data.getForecast();
+                gen.writeArrayFieldStart("forecast");
+                for (int i = 0; i < forecast.size(); i++) {
+                    gen.writeStartObject();
+                    gen.writeNumberField("time", forecast.getTime(i));
+                    gen.writeNumberField("temp", forecast.getTemp(i));
+                    gen.writeNumberField("tempMin", forecast.getTempMin(i));
+                    gen.writeNumberField("tempMax", forecast.getTempMax(i));
+                    gen.writeStringField("condition", forecast.getCondition(i));
+                    gen.writeNumberField("rainChance", forecast.getRainChance(i));
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, String> queryParams(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) return params;
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            String value = URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8).trim();
+            if (!value.isEmpty()) params.put(pair.substring(0, eq), value);
+        }
+        return params;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (JsonGenerator gen = json.createGenerator(bytes, JsonEncoding.UTF8)) {
+            gen.writeStartObject();
+            gen.writeStringField("error", message);
+            gen.writeEndObject();
+        }
+        send(exchange, status, bytes.toByteArray());
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.weatherapp;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Per-day aggregates (min, max, mean temperature and the most frequent condition) over every
+ * stored observation and forecast point of a location. A day is re-aggregated from its own rows
+ * in the same transaction that writes new samples for it, so history is never rescanned; months
+ * are read from the rollup table with one indexed range query and kept in memory, least recently
+ * used first out, until one of their days changes.
+ */
+public class WeatherRollups {
+    public record DailyRollup(LocalDate date, int samples, double min, double max, double mean, String condition) {}
+
+    private record MonthKey(String location, YearMonth month) {}
+
+    // Day boundaries are local time, matching how the forecast and the calendar label days.
+    static final String LOCAL_EPOCH_DAY = "CAST(julianday(%s, 'unixepoch', 'localtime') - 2440587.5 AS INTEGER)";
+
+    static final String BACKFILL = "INSERT OR REPLACE INTO daily_rollups(location, day, samples, temp_min, temp_max, temp_mean, condition) " +
+            "WITH samples AS (" +
+            "SELECT location, " + String.format(LOCAL_EPOCH_DAY, "observed_at") + " AS day, temp AS t, temp AS lo, temp AS hi, description AS c FROM observations " +
+            "UNION ALL SELECT location, " + String.format(LOCAL_EPOCH_DAY, "forecast_at") + ", temp, temp_min, temp_max, condition FROM forecast_points), " +
+            "conditions AS (SELECT location, day, c, COUNT(*) AS n FROM samples GROUP BY location, day, c) " +
+            "SELECT location, day, COUNT(*), MIN(lo), MAX(hi), AVG(t), " +
+            "(SELECT c FROM conditions k WHERE k.location = s.location AND k.day = s.day ORDER BY n DESC, c LIMIT 1) " +
+            "FROM samples s GROUP BY location, day";
+
+    private static final String UPDATE_DAY = "INSERT OR REPLACE INTO daily_rollups(location, day, samples, temp_min, temp_max, temp_mean, condition) " +
+            "WITH samples AS (" +
+            "SELECT temp AS t, temp AS lo, temp AS hi, description AS c FROM observations WHERE location = ?1 AND observed_at >= ?3 AND observed_at < ?4 " +
+            "UNION ALL SELECT temp, temp_min, temp_max, condition FROM forecast_points WHERE location = ?1 AND forecast_at >= ?3 AND forecast_at < ?4) " +
+            "SELECT ?1, ?2, COUNT(*), MIN(lo), MAX(hi), AVG(t), " +
+            "(SELECT c FROM samples GROUP BY c ORDER BY COUNT(*) DESC, c LIMIT 1) " +
+            "FROM samples HAVING COUNT(*) > 0";
+    private static final String SELECT_RANGE = "SELECT day, samples, temp_min, temp_max, temp_mean, condition FROM daily_rollups " +
+            "WHERE location = ? AND day BETWEEN ? AND ? ORDER BY day";
+
+    private static final LatencyHistogram UPDATE_TIMER = Metrics.histogram("db.rollups.update");
+    private static final LatencyHistogram MONTH_TIMER = Metrics.histogram("db.rollups.month");
+
+    private static final int MAX_CACHED_MONTHS = 24;
+
+    private static final Map<MonthKey, CompletableFuture<List<DailyRollup>>> months = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<MonthKey, CompletableFuture<List<DailyRollup>>> eldest) {
+                    return size() > MAX_CACHED_MONTHS;
+                }
+            });
+
+    public static long epochDay(long epochSecond) {
+        return LocalDate.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneId.systemDefault()).toEpochDay();
+    }
+
+    /** Re-aggregates the given days of a location; runs on the writer inside the flush transaction. */
+    static void update(DatabaseConnections.StatementCache statements, String location, Collection<Long> epochDays) throws SQLException {
+        long start = System.nanoTime();
+        PreparedStatement pstmt = statements.prepare(UPDATE_DAY);
+        ZoneId zone = ZoneId.systemDefault();
+        for (long epochDay : epochDays) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            pstmt.setString(1, location);
+            pstmt.setLong(2, epochDay);
+            pstmt.setLong(3, date.atStartOfDay(zone).toEpochSecond());
+            pstmt.setLong(4, date.plusDays(1).atStartOfDay(zone).toEpochSecond());
+            pstmt.addBatch();
+            months.remove(new MonthKey(location, YearMonth.from(date)));
+        }
+        pstmt.executeBatch();
+        UPDATE_TIMER.recordSince(start);
+    }
+
+    /** Rollups for the days of one month that have any data, oldest first. */
+    public static CompletableFuture<List<DailyRollup>> getMonth(String location, YearMonth month) {
+        MonthKey key = new MonthKey(location, month);
+        CompletableFuture<List<DailyRollup>> cached = months.get(key);
+        if (cached != null && !cached.isCompletedExceptionally()) return cached;
+
+        // Samples recorded just before this call are still queued for the writer; read after they land.
+        CompletableFuture<List<DailyRollup>> query = ObservationStore.whenFlushed()
+                .handle((v, e) -> null)
+                .thenCompose(v -> readMonth(location, month));
+        months.put(key, query);
+        return query;
+    }
+
+    static CompletableFuture<List<DailyRollup>> readMonth(String location, YearMonth month) {
+        return DatabaseManager.connections().read(MONTH_TIMER, statements -> {
+            PreparedStatement pstmt = statements.prepare(SELECT_RANGE);
+            pstmt.setString(1, location);
+            pstmt.setLong(2, month.atDay(1).toEpochDay());
+            pstmt.setLong(3, month.atEndOfMonth().toEpochDay());
+            List<DailyRollup> days = new ArrayList<>();
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    days.add(new DailyRollup(
+                            LocalDate.ofEpochDay(rs.getLong("day")),
+                            rs.getInt("samples"),
+                            rs.getDouble("temp_min"),
+                            rs.getDouble("temp_max"),
+                            rs.getDouble("temp_mean"),
+                            rs.getString("condition")
+                    ));
+                }
+            }
+            return days;
+        });
+    }
+}
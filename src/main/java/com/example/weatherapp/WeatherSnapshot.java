@@ -0,0 +1,107 @@
+package com.example.weatherapp;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Last displayed weather, kept in the app_state table in a compact binary form so the next launch
+ * can paint it from local storage before the network answers. Restored data is marked stale.
+ */
+public final class WeatherSnapshot {
+    private static final String STATE_KEY = "last_weather";
+    private static final int FORMAT_VERSION = 1;
+    private static final Duration MAX_AGE = Duration.ofDays(7);
+    // Forecast slots that ended more than this long ago are dropped when restoring.
+    private static final long PAST_SLOT_SECONDS = 3 * 3600;
+    private static final System.Logger LOG = System.getLogger(WeatherSnapshot.class.getName());
+
+    private WeatherSnapshot() {}
+
+    public static CompletableFuture<Void> save(WeatherData data) {
+        return DatabaseManager.putState(STATE_KEY, encode(data));
+    }
+
+    /** Completes with the last saved weather marked as stale, or null if there is none. */
+    public static CompletableFuture<WeatherData> load() {
+        return DatabaseManager.getState(STATE_KEY, MAX_AGE.toSeconds()).thenApply(bytes -> {
+            if (bytes == null) return null;
+            try {
+                return decode(bytes, Instant.now().getEpochSecond() - PAST_SLOT_SECONDS);
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.WARNING, "Ignoring unreadable weather snapshot", e);
+                return null;
+            }
+        });
+    }
+
+    static byte[] encode(WeatherData data) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeUTF(data.getCity());
+            out.writeUTF(data.getCountryCode());
+            out.writeDouble(data.getTemp());
+            out.writeUTF(data.getDescription());
+            out.writeInt(data.getHumidity());
+            out.writeDouble(data.getWindSpeed());
+            out.writeInt(data.getPressure());
+            out.writeByte(data.getAqi());
+            out.writeDouble(data.getLatitude());
+            out.writeDouble(data.getLongitude());
+            out.writeUTF(data.getSunrise());
+            out.writeUTF(data.getSunset());
+            out.writeLong(data.getObservedAt());
+
+            ForecastSeries forecast = data.getForecast();
+            out.writeShort(forecast.size());
+            for (int i = 0; i < forecast.size(); i++) {
+                out.writeInt((int) forecast.getTime(i));
+                out.writeShort(centi(forecast.getTemp(i)));
+                out.writeShort(centi(forecast.getTempMin(i)));
+                out.writeShort(centi(forecast.getTempMax(i)));
+                out.writeUTF(forecast.getCondition(i));
+                out.writeByte(forecast.getRainChance(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Forecast temperatures are stored as hundredths of a degree.
+    private static int centi(double temp) {
+        return (int) Math.round(temp * 100);
+    }
+
+    static WeatherData decode(byte[] bytes, long dropSlotsBefore) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            if (in.readByte() != FORMAT_VERSION) return null;
+            WeatherData data = new WeatherData(in.readUTF(), in.readUTF(), in.readDouble(), in.readUTF(), in.readInt(),
+                    in.readDouble(), in.readInt(), in.readByte(), in.readDouble(), in.readDouble(), in.readUTF(), in.readUTF());
+            data.setObservedAt(in.readLong());
+
+            int size = in.readUnsignedShort();
+            ForecastSeries.Builder builder = new ForecastSeries.Builder();
+            for (int i = 0; i < size; i++) {
+                long time = Integer.toUnsignedLong(in.readInt());
+                double temp = in.readShort() / 100.0;
+                double tempMin = in.readShort() / 100.0;
+                double tempMax = in.readShort() / 100.0;
+                String condition = in.readUTF();
+                int rainChance = in.readByte();
+                if (time >= dropSlotsBefore) builder.add(time, temp, tempMin, tempMax, condition, rainChance);
+            }
+            ForecastSeries forecast = builder.build();
+            data.setForecast(forecast);
+            data.setStale(true);
+            return data;
+        }
+    }
+}
@@ -3,6 +3,8 @@ module com.example.weatherapp {
     requires javafx.fxml;
     requires javafx.web;
     requires java.net.http;
+    requires jdk.httpserver;
+    requires java.management;
     requires com.fasterxml.jackson.databind;
     requires java.sql;
     requires org.xerial.sqlitejdbc;
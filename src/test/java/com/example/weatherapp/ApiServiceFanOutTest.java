@@ -0,0 +1,157 @@
+package com.example.weatherapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the fetch pipeline against a local stub of OpenWeatherMap that delays every endpoint, and
+ * checks that a search costs about the slowest call rather than the sum of all three.
+ */
+class ApiServiceFanOutTest {
+    private static final long LATENCY_MILLIS = 400;
+
+    // %s is the coordinate object; secondary responses are cached per location, so every city gets its own.
+    private static final String WEATHER = "{\"name\":\"Stubville\",\"coord\":%s,\"main\":{\"temp\":21.5,\"humidity\":40,\"pressure\":1012},\"dt\":1700000000}";
+    private static final Map<String, String> BODIES = Map.of(
+            "/data/2.5/air_pollution", "{\"list\":[{\"main\":{\"aqi\":2}}]}",
+            "/data/2.5/forecast", "{\"list\":[{\"dt\":1700010800,\"main\":{\"temp\":19.0,\"temp_min\":18.0,\"temp_max\":20.0},\"weather\":[{\"main\":\"Clouds\"}]}]}");
+
+    private static HttpServer upstream;
+    private static ExecutorService executor;
+    private static final Map<String, Integer> statuses = new ConcurrentHashMap<>();
+    private static final AtomicInteger active = new AtomicInteger();
+    private static final AtomicInteger maxActive = new AtomicInteger();
+    private static final AtomicInteger cities = new AtomicInteger();
+    private static volatile String lastWeatherQuery;
+
+    @BeforeAll
+    static void startUpstream() throws Exception {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstream.setExecutor(executor);
+        upstream.createContext("/", ApiServiceFanOutTest::handle);
+        upstream.start();
+        // ApiService reads these once, when it is first used.
+        System.setProperty("weatherapp.owm.baseUrl", "http://127.0.0.1:" + upstream.getAddress().getPort());
+        System.setProperty("weatherapp.db.url", "jdbc:sqlite:" + Files.createTempFile("weather-test", ".db"));
+        // The first fetch pays for class loading and connection setup; keep that out of the timings.
+        ApiService.fetchWeatherByCoordsAsync(0.0, 0.0).get(10, TimeUnit.SECONDS);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.stop(0);
+        executor.shutdownNow();
+    }
+
+    @BeforeEach
+    void reset() {
+        statuses.clear();
+        maxActive.set(0);
+    }
+
+    @Test
+    void coordinateFetchCostsTheSlowestCallNotTheSum() throws Exception {
+        long start = System.nanoTime();
+        WeatherData data = ApiService.fetchWeatherByCoordsAsync(10.0, 20.0).get(10, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("Stubville", data.getCity());
+        assertEquals(2, data.getAqi());
+        assertEquals(1, data.getForecast().size());
+        assertEquals(3, maxActive.get(), "all three calls in flight together");
+        assertTrue(elapsed >= LATENCY_MILLIS, "took " + elapsed + " ms");
+        assertTrue(elapsed < 2 * LATENCY_MILLIS, "took " + elapsed + " ms, sequential would be " + 3 * LATENCY_MILLIS);
+    }
+
+    @Test
+    void cityFetchFansOutOnceCoordinatesAreKnown() throws Exception {
+        long start = System.nanoTime();
+        WeatherData data = ApiService.fetchWeatherAsync("Fan Out City").get(10, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("Stubville", data.getCity());
+        assertEquals(2, maxActive.get(), "AQI and forecast in flight together");
+        assertTrue(elapsed >= 2 * LATENCY_MILLIS, "took " + elapsed + " ms");
+        assertTrue(elapsed < 3 * LATENCY_MILLIS, "took " + elapsed + " ms, sequential would be " + 3 * LATENCY_MILLIS);
+    }
+
+    @Test
+    void failedSecondaryCallDegradesInsteadOfFailing() throws Exception {
+        statuses.put("/data/2.5/forecast", 404);
+        long start = System.nanoTime();
+        WeatherData data = ApiService.fetchWeatherByCoordsAsync(-30.0, 140.0).get(10, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("Stubville", data.getCity());
+        assertEquals(2, data.getAqi());
+        assertEquals(0, data.getForecast().size());
+        assertTrue(elapsed < 2 * LATENCY_MILLIS, "took " + elapsed + " ms");
+    }
+
+    @Test
+    void cityIsSentAsOneEncodedParameter() throws Exception {
+        ApiService.fetchWeatherAsync("São Paulo&units=imperial").get(10, TimeUnit.SECONDS);
+
+        assertTrue(lastWeatherQuery.startsWith("q=S%C3%A3o+Paulo%26units%3Dimperial&"), lastWeatherQuery);
+        assertEquals(1, lastWeatherQuery.split("units=").length - 1, lastWeatherQuery);
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                active.decrementAndGet();
+            }
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/data/2.5/weather")) lastWeatherQuery = exchange.getRequestURI().getRawQuery();
+            int status = statuses.getOrDefault(path, 200);
+            String body = path.equals("/data/2.5/weather") ? String.format(Locale.ROOT, WEATHER, coordinates(exchange.getRequestURI().getQuery())) : BODIES.get(path);
+            if (status != 200 || body == null) {
+                exchange.sendResponseHeaders(body == null ? 404 : status, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static String coordinates(String query) {
+        if (query.contains("lat=")) {
+            String lat = query.replaceAll(".*lat=([^&]+).*", "$1");
+            String lon = query.replaceAll(".*lon=([^&]+).*", "$1");
+            return "{\"lat\":" + lat + ",\"lon\":" + lon + "}";
+        }
+        return "{\"lat\":" + (50 + cities.incrementAndGet()) + ",\"lon\":-100.0}";
+    }
+}
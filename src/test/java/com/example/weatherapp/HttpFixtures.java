@@ -0,0 +1,67 @@
+package com.example.weatherapp;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * On-disk layout of recorded responses, shared by the recorder and {@link ReplayServer}. A response
+ * for endpoint {@code kind} is stored as {@code <dir>/<kind>/<query>.json}, keyed by its query
+ * without the API key, and also as {@code <dir>/<kind>.json}, the answer for queries that were
+ * never recorded. A directory holding only the latter, like the benchmark fixtures, replays fine.
+ *
+ * <p>{@link #main} runs the app (or, with {@code --server}, the proxy) with every response it gets
+ * recorded into {@code weatherapp.http.recordDir}:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.weatherapp.HttpFixtures \
+ *     -Dweatherapp.http.recordDir=fixtures
+ * </pre>
+ */
+final class HttpFixtures {
+    private static final System.Logger LOG = System.getLogger(HttpFixtures.class.getName());
+
+    private HttpFixtures() {}
+
+    public static void main(String[] args) throws Exception {
+        String dir = System.getProperty("weatherapp.http.recordDir");
+        if (dir == null) throw new IllegalArgumentException("Set -Dweatherapp.http.recordDir to the directory to record into");
+        ApiService.getTransport().setResponseTap(recorder(Path.of(dir)));
+        Launcher.main(args);
+    }
+
+    /** A tap that files every decoded body under {@code dir}. */
+    static HttpTransport.ResponseTap recorder(Path dir) {
+        return (endpoint, uri, body) -> {
+            try {
+                Path exact = dir.resolve(endpoint.kind()).resolve(queryKey(uri) + ".json");
+                Files.createDirectories(exact.getParent());
+                Files.write(exact, body);
+                Files.write(dir.resolve(endpoint.kind() + ".json"), body);
+            } catch (IOException e) {
+                LOG.log(System.Logger.Level.WARNING, "Couldn't record " + uri.getPath(), e);
+            }
+        };
+    }
+
+    /** The recorded body for this request, falling back to the endpoint's default; null if neither exists. */
+    static Path find(Path dir, String kind, URI uri) {
+        Path exact = dir.resolve(kind).resolve(queryKey(uri) + ".json");
+        if (Files.isRegularFile(exact)) return exact;
+        Path fallback = dir.resolve(kind + ".json");
+        return Files.isRegularFile(fallback) ? fallback : null;
+    }
+
+    // Parameter order and the API key don't change the answer, so neither is part of the key.
+    static String queryKey(URI uri) {
+        String query = uri.getRawQuery();
+        if (query == null || query.isEmpty()) return "_";
+        String key = Arrays.stream(query.split("&"))
+                .filter(pair -> !pair.isEmpty() && !pair.startsWith("appid="))
+                .sorted()
+                .collect(Collectors.joining("&"));
+        return key.isEmpty() ? "_" : key.replaceAll("[^A-Za-z0-9.=&+-]", "_").replace('&', ',');
+    }
+}
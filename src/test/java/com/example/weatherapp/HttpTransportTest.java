@@ -0,0 +1,240 @@
+package com.example.weatherapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the transport against a loopback stub that can delay, stall or fail each response.
+ */
+class HttpTransportTest {
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration BODY_TIMEOUT = Duration.ofMillis(300);
+    private static final Duration BASE_BACKOFF = Duration.ofMillis(100);
+    private static final int BREAKER_THRESHOLD = 3;
+    private static final Duration BREAKER_OPEN = Duration.ofMillis(400);
+    private static final HttpTransport.Endpoint ENDPOINT = HttpTransport.Endpoint.named("test.stub");
+    private static final ApiService.Decoder<String> TEXT = body -> new String(body.readAllBytes(), StandardCharsets.UTF_8);
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile HttpHandler behaviour;
+    private ExecutorService executor;
+    private HttpServer server;
+    private HttpTransport transport;
+
+    @BeforeEach
+    void start() throws IOException {
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(executor);
+        server.createContext("/", exchange -> {
+            hits.incrementAndGet();
+            try (exchange) {
+                behaviour.handle(exchange);
+            }
+        });
+        server.start();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        transport = new HttpTransport(client, REQUEST_TIMEOUT, BODY_TIMEOUT, BASE_BACKOFF, BREAKER_THRESHOLD, BREAKER_OPEN);
+    }
+
+    @AfterEach
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void stalledHeadersHitTheRequestDeadline() {
+        behaviour = exchange -> {
+            sleep(2000);
+            respond(exchange, 200, "late");
+        };
+        long start = System.nanoTime();
+        ApiException failure = failure(get(1, TEXT));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(ApiException.Kind.TIMEOUT, failure.getKind());
+        assertTrue(elapsed < 1500, "took " + elapsed + " ms");
+    }
+
+    @Test
+    void stalledBodyHitsTheBodyDeadline() {
+        behaviour = exchange -> {
+            exchange.sendResponseHeaders(200, 100);
+            OutputStream out = exchange.getResponseBody();
+            out.write("{\"partial\":".getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            sleep(2000);
+        };
+        long start = System.nanoTime();
+        ApiException failure = failure(get(1, TEXT));
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(ApiException.Kind.TIMEOUT, failure.getKind());
+        assertTrue(elapsed < 1500, "took " + elapsed + " ms");
+    }
+
+    @Test
+    void serverErrorsAreRetriedWithBackoff() throws Exception {
+        behaviour = exchange -> respond(exchange, hits.get() < 3 ? 503 : 200, "ok");
+        long start = System.nanoTime();
+        String body = get(3, TEXT).get(5, TimeUnit.SECONDS);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("ok", body);
+        assertEquals(3, hits.get());
+        // Equal jitter waits at least half of 100 ms, then half of 200 ms.
+        assertTrue(elapsed >= 150, "took " + elapsed + " ms");
+    }
+
+    @Test
+    void retriesStopAtMaxAttempts() {
+        behaviour = exchange -> respond(exchange, 500, "");
+        ApiException failure = failure(get(3, TEXT));
+
+        assertEquals(ApiException.Kind.HTTP_STATUS, failure.getKind());
+        assertEquals(500, failure.getStatusCode());
+        assertEquals(3, failure.getAttempts());
+        assertEquals(3, hits.get());
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() {
+        behaviour = exchange -> respond(exchange, 404, "");
+        ApiException failure = failure(get(3, TEXT));
+
+        assertEquals(404, failure.getStatusCode());
+        assertEquals(1, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+    }
+
+    @Test
+    void undecodableBodyIsNeitherRetriedNorHeldAgainstTheHost() {
+        behaviour = exchange -> respond(exchange, 200, "not json");
+        for (int i = 0; i < BREAKER_THRESHOLD + 1; i++) {
+            ApiException failure = failure(get(3, WeatherParser::parseCurrent));
+            assertEquals(ApiException.Kind.DECODE, failure.getKind());
+        }
+        assertEquals(BREAKER_THRESHOLD + 1, hits.get());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+    }
+
+    @Test
+    void decoderRuntimeExceptionStillCompletesTheCall() {
+        behaviour = exchange -> respond(exchange, 200, "{}");
+        ApiService.Decoder<String> broken = body -> {
+            throw new IllegalStateException("decoder bug");
+        };
+        ApiException failure = failure(get(3, broken));
+
+        assertEquals(ApiException.Kind.DECODE, failure.getKind());
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertEquals(1, hits.get());
+    }
+
+    @Test
+    void breakerOpensAfterConsecutiveFailuresAndFailsFast() {
+        behaviour = exchange -> respond(exchange, 500, "");
+        for (int i = 0; i < BREAKER_THRESHOLD; i++) failure(get(1, TEXT));
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+
+        ApiException failure = failure(get(3, TEXT));
+        assertEquals(ApiException.Kind.CIRCUIT_OPEN, failure.getKind());
+        assertEquals(BREAKER_THRESHOLD, hits.get(), "an open breaker must not reach the host");
+    }
+
+    @Test
+    void halfOpenTrialClosesTheBreakerOnSuccess() throws Exception {
+        behaviour = exchange -> respond(exchange, 500, "");
+        for (int i = 0; i < BREAKER_THRESHOLD; i++) failure(get(1, TEXT));
+        sleep(BREAKER_OPEN.toMillis() + 100);
+
+        behaviour = exchange -> respond(exchange, 200, "ok");
+        assertEquals("ok", get(1, TEXT).get(5, TimeUnit.SECONDS));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker().getState());
+    }
+
+    @Test
+    void halfOpenTrialReopensTheBreakerOnFailure() {
+        behaviour = exchange -> respond(exchange, 500, "");
+        for (int i = 0; i < BREAKER_THRESHOLD; i++) failure(get(1, TEXT));
+        sleep(BREAKER_OPEN.toMillis() + 100);
+
+        assertEquals(ApiException.Kind.HTTP_STATUS, failure(get(1, TEXT)).getKind());
+        assertEquals(CircuitBreaker.State.OPEN, breaker().getState());
+        assertEquals(ApiException.Kind.CIRCUIT_OPEN, failure(get(1, TEXT)).getKind());
+    }
+
+    @Test
+    void halfOpenLetsOnlyOneTrialThrough() throws Exception {
+        behaviour = exchange -> respond(exchange, 500, "");
+        for (int i = 0; i < BREAKER_THRESHOLD; i++) failure(get(1, TEXT));
+        sleep(BREAKER_OPEN.toMillis() + 100);
+
+        behaviour = exchange -> {
+            sleep(200);
+            respond(exchange, 200, "ok");
+        };
+        CompletableFuture<String> trial = get(1, TEXT);
+        assertEquals(ApiException.Kind.CIRCUIT_OPEN, failure(get(1, TEXT)).getKind());
+        assertEquals("ok", trial.get(5, TimeUnit.SECONDS));
+        assertEquals(BREAKER_THRESHOLD + 1, hits.get());
+    }
+
+    private <T> CompletableFuture<T> get(int maxAttempts, ApiService.Decoder<T> decoder) {
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/data");
+        return transport.get(HttpRequest.newBuilder(uri), maxAttempts, ENDPOINT, decoder);
+    }
+
+    private CircuitBreaker breaker() {
+        return transport.breakerFor("127.0.0.1");
+    }
+
+    private static ApiException failure(CompletableFuture<?> call) {
+        ExecutionException e = assertThrows(ExecutionException.class, () -> call.get(5, TimeUnit.SECONDS));
+        return assertInstanceOf(ApiException.class, e.getCause());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        if (bytes.length > 0) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.weatherapp;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drives N simulated users, each on its own virtual thread, for a fixed duration and reports
+ * throughput and latency percentiles. By default it starts an embedded {@link ReplayServer} and
+ * points {@link ApiService} at it, so runs cost no API quota and touch a throwaway database.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.weatherapp.LoadGenerator
+ *
+
+ * -Dweatherapp.load.mode=api      fetchWeatherAsync per request (default)
+ *                      =batch     fetchWeatherBatch of weatherapp.load.batchSize cities per request
+ *                      =proxy     GET /weather on a running WeatherProxyServer (weatherapp.load.target)
+ * -Dweatherapp.load.users=50 -Dweatherapp.load.durationSeconds=30 -Dweatherapp.load.cities=500
+ * -Dweatherapp.load.replay=false  use the configured upstream instead of the embedded replay server
+ * </pre>
+ *
+ * The replay server's latency, jitter and error injection come from the {@code weatherapp.replay.*}
+ * properties.
+ */
+public class LoadGenerator {
+    private enum Mode { API, BATCH, PROXY }
+
+    private static final class UserStats {
+        long[] latencies = new long[1024];
+        int count;
+        int errors;
+
+        void record(long nanos) {
+            if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+            latencies[count++] = nanos;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Mode mode = Mode.valueOf(System.getProperty("weatherapp.load.mode", "api").toUpperCase(Locale.ROOT));
+        int users = Integer.getInteger("weatherapp.load.users", 50);
+        long durationNanos = TimeUnit.SECONDS.toNanos(Long.getLong("weatherapp.load.durationSeconds", 30));
+        int cities = Integer.getInteger("weatherapp.load.cities", 500);
+        int batchSize = Integer.getInteger("weatherapp.load.batchSize", 20);
+        String target = System.getProperty("weatherapp.load.target", "http://127.0.0.1:8085");
+        boolean replay = mode != Mode.PROXY && Boolean.parseBoolean(System.getProperty("weatherapp.load.replay", "true"));
+
+        // ApiService reads these when it is first used, so they must be in place before that.
+        ReplayServer upstream = null;
+        if (replay) {
+            upstream = ReplayServer.fromProperties(0);
+            upstream.start();
+            System.setProperty("weatherapp.owm.baseUrl", upstream.getBaseUrl());
+            System.setProperty("weatherapp.ipLookup.url", upstream.getBaseUrl() + "/json/");
+            System.setProperty("weatherapp.ipLookup.fallbackUrl", upstream.getBaseUrl() + "/json/");
+            setDefault("weatherapp.quota.perMinute", "1000000");
+            setDefault("weatherapp.db.url", "jdbc:sqlite:" + Files.createTempFile("weather-load", ".db"));
+        }
+
+        HttpClient proxyClient = mode == Mode.PROXY ? HttpClient.newHttpClient() : null;
+        AtomicLong nextCity = new AtomicLong();
+        UserStats[] stats = new UserStats[users];
+        List<Thread> threads = new ArrayList<>(users);
+        long start = System.nanoTime();
+        long deadline = start + durationNanos;
+        for (int u = 0; u < users; u++) {
+            UserStats user = stats[u] = new UserStats();
+            threads.add(Thread.ofVirtual().name("load-user-" + u).start(() -> {
+                while (System.nanoTime() - deadline < 0) {
+                    long begin = System.nanoTime();
+                    try {
+                        switch (mode) {
+                            case API -> ApiService.fetchWeatherAsync(city(ThreadLocalRandom.current().nextInt(cities))).get();
+                            case BATCH -> {
+                                List<String> batch = new ArrayList<>(batchSize);
+                                // Fresh names every batch, so each one goes past the caches to the upstream.
+                                for (int i = 0; i < batchSize; i++) batch.add(city(nextCity.getAndIncrement()));
+                                for (ApiService.CityResult result : ApiService.fetchWeatherBatch(batch, r -> {}).get()) {
+                                    if (!result.isSuccess()) user.errors++;
+                                }
+                            }
+                            case PROXY -> {
+                                HttpResponse<Void> response = proxyClient.send(HttpRequest.newBuilder(URI.create(target + "/weather?city="
+                                        + URLEncoder.encode(city(ThreadLocalRandom.current().nextInt(cities)), StandardCharsets.UTF_8))).build(),
+                                        HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200) user.errors++;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (Exception e) {
+                        user.errors++;
+                    }
+                    user.record(System.nanoTime() - begin);
+                }
+            }));
+        }
+        try {
+            for (Thread thread : threads) thread.join();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            report(mode, users, seconds, stats, mode == Mode.BATCH ? batchSize : 1);
+            if (upstream != null) {
+                System.out.printf(Locale.ROOT, "upstream     %d served, %d injected errors%n", upstream.getServed(), upstream.getInjectedErrors());
+            }
+        } finally {
+            // Everything else the app starts runs on daemon threads, so this is all that keeps the JVM up.
+            if (upstream != null) upstream.stop();
+            if (mode != Mode.PROXY) DatabaseManager.shutdown();
+        }
+    }
+
+    private static void report(Mode mode, int users, double seconds, UserStats[] stats, int citiesPerRequest) {
+        int total = 0, errors = 0;
+        for (UserStats user : stats) {
+            total += user.count;
+            errors += user.errors;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (UserStats user : stats) {
+            System.arraycopy(user.latencies, 0, all, offset, user.count);
+            offset += user.count;
+        }
+        Arrays.sort(all);
+        System.out.printf(Locale.ROOT, "mode         %s, %d users, %.1f s%n", mode.name().toLowerCase(Locale.ROOT), users, seconds);
+        System.out.printf(Locale.ROOT, "requests     %d (%d errors)%n", total, errors);
+        System.out.printf(Locale.ROOT, "throughput   %.1f req/s", total / seconds);
+        if (citiesPerRequest > 1) System.out.printf(Locale.ROOT, ", %.1f cities/s", total * citiesPerRequest / seconds);
+        System.out.println();
+        System.out.printf(Locale.ROOT, "latency ms   p50 %.2f  p90 %.2f  p99 %.2f  max %.2f%n",
+                percentileMillis(all, 0.50), percentileMillis(all, 0.90), percentileMillis(all, 0.99), percentileMillis(all, 1.0));
+    }
+
+    private static double percentileMillis(long[] sorted, double q) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6;
+    }
+
+    private static String city(long n) {
+        return "Load City " + n;
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) System.setProperty(key, value);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.weatherapp;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Local stand-in for OpenWeatherMap and the IP geolocation services, serving responses captured in
+ * by the recorder (see {@link HttpFixtures}). Every response can be delayed by a fixed latency plus
+ * random jitter, and a fraction of them replaced by an error status, to exercise timeouts, retries
+ * and circuit breakers without touching the real services or the API quota. Run it from the test
+ * classpath:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.weatherapp.ReplayServer \
+ *     -Dweatherapp.replay.dir=src/jmh/resources/fixtures
+ * </pre>
+ * and point the app at it with {@code -Dweatherapp.owm.baseUrl=http://127.0.0.1:8089} and
+ * {@code -Dweatherapp.ipLookup.url=http://127.0.0.1:8089/json/} (and {@code .fallbackUrl}).
+ */
+public class ReplayServer {
+    private static final String HOST = System.getProperty("weatherapp.replay.host", "127.0.0.1");
+    private static final int PORT = Integer.getInteger("weatherapp.replay.port", 8089);
+    private static final String DIR = System.getProperty("weatherapp.replay.dir", "fixtures");
+    private static final long LATENCY_MILLIS = Long.getLong("weatherapp.replay.latencyMillis", 0);
+    private static final long JITTER_MILLIS = Long.getLong("weatherapp.replay.jitterMillis", 0);
+    private static final double ERROR_RATE = Double.parseDouble(System.getProperty("weatherapp.replay.errorRate", "0"));
+    private static final int ERROR_STATUS = Integer.getInteger("weatherapp.replay.errorStatus", 503);
+
+    private static final Map<String, String> KINDS = Map.of(
+            "/data/2.5/weather", "weather",
+            "/data/2.5/air_pollution", "air_pollution",
+            "/data/2.5/forecast", "forecast",
+            "/json/", "geolocation",
+            "/json", "geolocation");
+
+    private record Body(byte[] plain, byte[] gzip) {}
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Path dir;
+    private final long latencyMillis;
+    private final long jitterMillis;
+    private final double errorRate;
+    private final int errorStatus;
+    private final Map<Path, Body> bodies = new ConcurrentHashMap<>();
+    private final LongAdder served = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+
+    public ReplayServer(String host, int port, Path dir, long latencyMillis, long jitterMillis, double errorRate, int errorStatus) throws IOException {
+        this.dir = dir;
+        this.latencyMillis = latencyMillis;
+        this.jitterMillis = jitterMillis;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /** A replay server configured from the {@code weatherapp.replay.*} properties. */
+    public static ReplayServer fromProperties(int port) throws IOException {
+        return new ReplayServer(HOST, port, Path.of(DIR), LATENCY_MILLIS, JITTER_MILLIS, ERROR_RATE, ERROR_STATUS);
+    }
+
+    public static void main(String[] args) throws IOException {
+        ReplayServer replay = fromProperties(PORT);
+        Runtime.getRuntime().addShutdownHook(new Thread(replay::stop));
+        replay.start();
+        System.out.println("Replaying " + replay.dir.toAbsolutePath() + " on " + replay.getBaseUrl());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public String getBaseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + getPort();
+    }
+
+    public long getServed() { return served.sum(); }
+    public long getInjectedErrors() { return injectedErrors.sum(); }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+            if (delay > 0) Thread.sleep(delay);
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                injectedErrors.increment();
+                exchange.sendResponseHeaders(errorStatus, -1);
+                return;
+            }
+
+            String kind = KINDS.get(exchange.getRequestURI().getPath());
+            Path fixture = kind != null ? HttpFixtures.find(dir, kind, exchange.getRequestURI()) : null;
+            if (fixture == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            Body body = bodies.computeIfAbsent(fixture, ReplayServer::load);
+            String accept = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+            boolean gzip = accept != null && accept.contains("gzip");
+            byte[] bytes = gzip ? body.gzip() : body.plain();
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (gzip) exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+            served.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Body load(Path fixture) {
+        try {
+            byte[] plain = Files.readAllBytes(fixture);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(plain.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(plain);
+            }
+            return new Body(plain, compressed.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.weatherapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+    private final SingleFlight<String, String> flights = new SingleFlight<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final CompletableFuture<String> upstream = new CompletableFuture<>();
+
+    private CompletableFuture<String> run(String key) {
+        return flights.run(key, () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+    }
+
+    @Test
+    void concurrentCallersShareOneUpstreamCall() throws Exception {
+        int callers = 8;
+        CountDownLatch ready = new CountDownLatch(callers);
+        List<Future<CompletableFuture<String>>> waiters = new ArrayList<>();
+        try (ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                waiters.add(threads.submit(() -> {
+                    ready.countDown();
+                    ready.await();
+                    return run("q=khulna");
+                }));
+            }
+        }
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (Future<CompletableFuture<String>> waiter : waiters) results.add(waiter.get(5, TimeUnit.SECONDS));
+
+        assertEquals(1, calls.get());
+        assertEquals(1, flights.getStarted());
+        assertEquals(callers - 1, flights.getAbsorbed());
+        assertEquals(1, flights.getInFlight());
+
+        upstream.complete("sunny");
+        for (CompletableFuture<String> result : results) assertEquals("sunny", result.get(5, TimeUnit.SECONDS));
+        assertEquals(0, flights.getInFlight());
+    }
+
+    @Test
+    void completedFlightIsNotReused() throws Exception {
+        CompletableFuture<String> first = run("q=khulna");
+        upstream.complete("sunny");
+        assertEquals("sunny", first.get(5, TimeUnit.SECONDS));
+
+        run("q=khulna");
+        assertEquals(2, calls.get());
+        assertEquals(0, flights.getAbsorbed());
+    }
+
+    @Test
+    void upstreamFailureReachesEveryWaiter() {
+        CompletableFuture<String> first = run("q=khulna");
+        CompletableFuture<String> second = run("q=khulna");
+        IOException failure = new IOException("upstream down");
+        upstream.completeExceptionally(failure);
+
+        for (CompletableFuture<String> waiter : List.of(first, second)) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertSame(failure, e.getCause());
+        }
+        assertEquals(0, flights.getInFlight());
+    }
+
+    @Test
+    void supplierThrowingFailsTheWaiter() {
+        IllegalStateException failure = new IllegalStateException("bad request");
+        CompletableFuture<String> waiter = flights.run("q=khulna", () -> {
+            throw failure;
+        });
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+        assertSame(failure, e.getCause());
+        assertEquals(0, flights.getInFlight());
+    }
+
+    @Test
+    void cancellingOneWaiterLeavesTheOthersRunning() throws Exception {
+        CompletableFuture<String> leaving = run("q=khulna");
+        CompletableFuture<String> staying = run("q=khulna");
+
+        assertTrue(leaving.cancel(true));
+        assertFalse(upstream.isCancelled());
+        assertFalse(staying.isDone());
+
+        upstream.complete("sunny");
+        assertEquals("sunny", staying.get(5, TimeUnit.SECONDS));
+        assertThrows(CancellationException.class, leaving::join);
+    }
+
+    @Test
+    void upstreamIsCancelledOnceTheLastWaiterLeaves() {
+        CompletableFuture<String> first = run("q=khulna");
+        CompletableFuture<String> second = run("q=khulna");
+
+        first.cancel(true);
+        assertFalse(upstream.isCancelled());
+        second.cancel(true);
+        assertTrue(upstream.isCancelled());
+        assertEquals(0, flights.getInFlight());
+
+        // A caller arriving after everyone left starts afresh rather than joining the cancelled call.
+        CompletableFuture<String> later = flights.run("q=khulna", () -> CompletableFuture.completedFuture("sunny"));
+        assertEquals("sunny", later.join());
+        assertEquals(2, flights.getStarted());
+    }
+
+    @Test
+    void differentKeysDoNotShareACall() {
+        run("q=khulna");
+        run("q=dhaka");
+        assertEquals(2, calls.get());
+        assertEquals(2, flights.getInFlight());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.weatherapp;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WeatherParserTest {
+    private static ForecastSeries forecast(String json) throws IOException {
+        return WeatherParser.parseForecast(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void readsEveryFieldOfEachSlot() throws IOException {
+        ForecastSeries series = forecast("{\"cod\":\"200\",\"list\":["
+                + "{\"dt\":1000,\"main\":{\"temp\":20.5,\"temp_min\":19.0,\"temp_max\":22.0},\"weather\":[{\"main\":\"Rain\"}],\"pop\":0.45},"
+                + "{\"dt\":2000,\"main\":{\"temp\":18.0,\"temp_min\":17.5,\"temp_max\":18.5},\"weather\":[{\"main\":\"Clouds\"}]}]}");
+
+        assertEquals(2, series.size());
+        assertEquals(1000, series.getTime(0));
+        assertEquals(20.5, series.getTemp(0));
+        assertEquals(19.0, series.getTempMin(0));
+        assertEquals(22.0, series.getTempMax(0));
+        assertEquals("Rain", series.getCondition(0));
+        assertEquals(45, series.getRainChance(0));
+        assertEquals(2000, series.getTime(1));
+        assertEquals("Clouds", series.getCondition(1));
+        assertEquals(0, series.getRainChance(1));
+    }
+
+    @Test
+    void slotWithoutTimeIsSkippedInsteadOfRepeatingThePreviousOne() throws IOException {
+        ForecastSeries series = forecast("{\"list\":["
+                + "{\"dt\":1000,\"main\":{\"temp\":20.0,\"temp_min\":19.0,\"temp_max\":21.0}},"
+                + "{\"main\":{\"temp\":30.0,\"temp_min\":29.0,\"temp_max\":31.0}},"
+                + "{\"dt\":3000,\"main\":{\"temp\":22.0,\"temp_min\":21.0,\"temp_max\":23.0}}]}");
+
+        assertEquals(2, series.size());
+        assertEquals(1000, series.getTime(0));
+        assertEquals(3000, series.getTime(1));
+        assertEquals(22.0, series.getTemp(1));
+    }
+
+    @Test
+    void missingTemperaturesAreNotCarriedOverFromThePreviousSlot() throws IOException {
+        ForecastSeries series = forecast("{\"list\":["
+                + "{\"dt\":1000,\"main\":{\"temp\":20.0,\"temp_min\":5.0,\"temp_max\":35.0}},"
+                + "{\"dt\":2000,\"main\":{\"temp\":18.0}},"
+                + "{\"dt\":3000,\"weather\":[{\"main\":\"Clear\"}]}]}");
+
+        assertEquals(2, series.size());
+        assertEquals(2000, series.getTime(1));
+        assertEquals(18.0, series.getTemp(1));
+        assertEquals(18.0, series.getTempMin(1));
+        assertEquals(18.0, series.getTempMax(1));
+    }
+}
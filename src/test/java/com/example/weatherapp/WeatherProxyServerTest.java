@@ -0,0 +1,67 @@
+package com.example.weatherapp;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Requests the proxy must turn away with 400 before anything goes upstream. Sent over a raw
+ * socket, since {@link java.net.URI} would refuse to build the malformed ones in the first place.
+ */
+class WeatherProxyServerTest {
+    private static WeatherProxyServer proxy;
+
+    @BeforeAll
+    static void startProxy() throws IOException {
+        proxy = new WeatherProxyServer("127.0.0.1", 0);
+        proxy.start();
+    }
+
+    @AfterAll
+    static void stopProxy() {
+        proxy.stop();
+    }
+
+    @Test
+    void malformedEscapeIsABadRequest() throws IOException {
+        assertEquals(400, status("/weather?city=%zz"));
+        assertEquals(400, status("/weather?city=Dhaka%2"));
+    }
+
+    @Test
+    void missingOrNonNumericCoordinatesAreBadRequests() throws IOException {
+        assertEquals(400, status("/current"));
+        assertEquals(400, status("/current?lat=22.8"));
+        assertEquals(400, status("/current?lat=north&lon=89.55"));
+    }
+
+    @Test
+    void coordinatesOutsideTheGlobeAreBadRequests() throws IOException {
+        assertEquals(400, status("/current?lat=NaN&lon=89.55"));
+        assertEquals(400, status("/current?lat=22.8&lon=Infinity"));
+        assertEquals(400, status("/current?lat=-Infinity&lon=0"));
+        assertEquals(400, status("/current?lat=90.5&lon=0"));
+        assertEquals(400, status("/current?lat=0&lon=-180.01"));
+    }
+
+    private static int status(String target) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), proxy.getPort())) {
+            OutputStream out = socket.getOutputStream();
+            out.write(("GET " + target + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            InputStream in = socket.getInputStream();
+            String response = new String(in.readAllBytes(), StandardCharsets.ISO_8859_1);
+            // "HTTP/1.1 400 Bad Request"; an empty response means the connection was dropped.
+            return response.isEmpty() ? -1 : Integer.parseInt(response.substring(9, 12));
+        }
+    }
+}